@@ -1,5 +1,6 @@
 package menu;
 
+import model.LedgerEntry;
 import service.EventCoordinatorService;
 import service.FinanceService;
 
@@ -26,7 +27,8 @@ public class FinanceMenu implements Menu {
     public MenuOption[] getOptions() {
         return new MenuOption[] {
             new MenuOption(1, "View Financial Summary", this::viewFinancialSummary),
-            new MenuOption(2, "Event Approvals", () -> new FinanceEventApprovalMenu(sc, eventCoordinatorService).start()),
+            new MenuOption(2, "View Ledger History", this::viewLedgerHistory),
+            new MenuOption(3, "Event Approvals", () -> new FinanceEventApprovalMenu(sc, eventCoordinatorService).start()),
             new MenuOption(0, "Return to Main Menu", () -> System.out.println("Returning to Main Menu..."))
         };
     }
@@ -57,5 +59,12 @@ public class FinanceMenu implements Menu {
         System.out.println("Net Profit: $" + String.format("%.2f",
             financeService.getTotalRevenue() - financeService.getTotalExpenses()));
     }
-}
 
+    private void viewLedgerHistory() {
+        System.out.println("\n=== LEDGER HISTORY ===");
+        for (LedgerEntry entry : financeService.getHistory()) {
+            System.out.println(entry);
+        }
+        System.out.println("Balance: $" + String.format("%.2f", financeService.getBalance()));
+    }
+}
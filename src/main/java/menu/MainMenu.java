@@ -17,8 +17,9 @@ public class MainMenu implements Menu {
     private final CostService costService = new CostService(designRepo, sc);
     private final Inventory inventory = new Inventory("data/inventory.txt");
     private final FinanceService financeService = new FinanceService("data/finance.txt");
-    private final SaleService saleService = new SaleService(sc, inventory, financeService);
-    private final ReturnService returnService = new ReturnService(sc, financeService);
+    private final SalesLog salesLog = new SalesLog("data/sales", "data/salesLogs.txt");
+    private final SaleService saleService = new SaleService(sc, inventory, financeService, salesLog);
+    private final ReturnService returnService = new ReturnService(sc, financeService, salesLog);
     private final HR hr = new HR();
     private final HRService hrService = new HRService(hr, sc, "data/staff.txt");
     private final TaskService taskService = new TaskService(hr, sc, "data/tasks.txt");
@@ -38,8 +39,7 @@ public class MainMenu implements Menu {
     private final PurchaseOrderRepository purchaseOrderRepository = new PurchaseOrderRepository("data/purchase_orders.csv");
     private final PurchaseOrderService purchaseOrderService = new PurchaseOrderService(purchaseOrderRepository,
             productRepository, vendorContractRepository, inventory);
-        private final ReportService reportService = new ReportService(
-            new util.LogManager("data/salesLogs.txt"));
+    private final ReportService reportService = new ReportService(salesLog);
     private final model.Schedule schedule = new model.Schedule();
     private final model.Events events = new model.Events();
     private final FashionShowService fashionShowService = new FashionShowService(schedule, events, financeService);
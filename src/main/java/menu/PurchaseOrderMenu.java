@@ -1,8 +1,11 @@
 package menu;
 
 import model.*;
+import service.PurchaseOrderImporter;
 import service.PurchaseOrderService;
 
+import java.io.File;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -31,6 +34,8 @@ public class PurchaseOrderMenu implements Menu {
             new MenuOption(5, "Receive Purchase Order", this::receivePurchaseOrder),
             new MenuOption(6, "View Purchase Order Details", this::viewPurchaseOrderDetails),
             new MenuOption(7, "Complete Purchase Order", this::completePurchaseOrder),
+            new MenuOption(8, "Replenish All Low Stock Products", this::replenishLowStock),
+            new MenuOption(9, "Import Purchase Orders from CSV", this::importPurchaseOrders),
             new MenuOption(0, "Return to Main Menu", () -> System.out.println("Returning to main menu..."))
         };
     }
@@ -272,6 +277,69 @@ public class PurchaseOrderMenu implements Menu {
         }
     }
 
+    private void replenishLowStock() {
+        System.out.println("\n=== REPLENISH LOW STOCK ===");
+        System.out.println("Orders each low-stock product from its cheapest approved vendor.");
+        System.out.print("Confirm? (y/n): ");
+        String confirm = sc.nextLine().trim().toLowerCase();
+        if (!confirm.equals("y") && !confirm.equals("yes")) {
+            System.out.println("Cancelled.");
+            return;
+        }
+
+        String expectedDate = LocalDate.now().plusDays(7).format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        List<PurchaseOrder> created;
+        try {
+            created = poService.replenishLowStock(expectedDate);
+        } catch (IllegalStateException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        if (created.isEmpty()) {
+            System.out.println("No purchase orders needed (or no priced approved vendor available).");
+            return;
+        }
+
+        double totalCost = 0;
+        for (PurchaseOrder po : created) {
+            System.out.println(po);
+            totalCost += po.getTotalCost();
+        }
+        System.out.printf("\n✓ Created %d purchase orders, total cost $%.2f%n", created.size(), totalCost);
+    }
+
+    private void importPurchaseOrders() {
+        System.out.println("\n=== IMPORT PURCHASE ORDERS ===");
+        System.out.println("Rows: productId,vendorId,quantity,unitCost,expectedDeliveryDate");
+        System.out.println("(leave unitCost empty for the catalog price, the date empty for 7 days from today)");
+        System.out.print("Enter CSV file path (or blank to cancel): ");
+        String path = sc.nextLine().trim();
+        if (path.isEmpty()) {
+            System.out.println("Cancelled.");
+            return;
+        }
+        if (!new File(path).exists()) {
+            System.out.println("Error: File not found.");
+            return;
+        }
+
+        PurchaseOrderImporter importer = new PurchaseOrderImporter(poService, Runtime.getRuntime().availableProcessors());
+        PurchaseOrderImporter.Result result;
+        try {
+            result = importer.importCsv(path);
+        } catch (IOException e) {
+            System.out.println("Error: Could not read " + path + ": " + e.getMessage());
+            return;
+        }
+        for (PurchaseOrderImporter.RowResult row : result.getRows()) {
+            if (!row.isValid()) {
+                System.out.println("Line " + row.lineNumber() + ": " + row.error());
+            }
+        }
+        System.out.printf("%n✓ Imported %d purchase orders, %d rows rejected (%.0f ms)%n",
+                result.getCreated().size(), result.getFailed(), result.getElapsedMillis());
+    }
+
     private void receivePurchaseOrder() {
         System.out.println("\n=== RECEIVE PURCHASE ORDER ===");
 
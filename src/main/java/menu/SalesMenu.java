@@ -36,6 +36,7 @@ public class SalesMenu implements Menu {
                 new MenuOption(2, "Update Product Price", this::handleUpdatePrice),
                 new MenuOption(3, "Start Return", this::handleReturn),
                 new MenuOption(4, "Generate Sales Report", this::handleGenerateSalesReport),
+                new MenuOption(5, "Generate Weekly Sales Report", this::handleGenerateWeeklySalesReport),
                 new MenuOption(0, "Return to Main Menu", () -> System.out.println("Returning to Main Menu..."))
         };
     }
@@ -105,8 +106,17 @@ public class SalesMenu implements Menu {
     public void handleGenerateSalesReport() {
         System.out.println("Enter date for sales report (YYYY-MM-DD):");
         LocalDate date = LocalDate.parse(sc.nextLine());
+        System.out.println("Enter end date (YYYY-MM-DD) or press Enter for a single day:");
+        String endInput = sc.nextLine().trim();
+        LocalDate endDate = endInput.isEmpty() ? date : LocalDate.parse(endInput);
 
-        reportService.generateSalesReport(date);
+        reportService.generateSalesReport(date, endDate);
     }
-}
 
+    public void handleGenerateWeeklySalesReport() {
+        System.out.println("Enter first day of the week (YYYY-MM-DD):");
+        LocalDate weekStart = LocalDate.parse(sc.nextLine());
+
+        reportService.generateWeeklySalesReport(weekStart);
+    }
+}
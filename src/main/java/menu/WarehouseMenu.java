@@ -11,11 +11,13 @@ import java.util.HashMap;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 public class WarehouseMenu implements Menu {
     private final Scanner sc;
     private QualityControlService qcService;
     private HashMap<Integer, ManufacturingBatch> batches;
+    private final ProductRepository productRepo = new ProductRepository("data/products.txt");
 
     private final OnlineOrderService onlineOrderService;
     private final ReceivingService receivingService;
@@ -67,6 +69,25 @@ public class WarehouseMenu implements Menu {
                 }
                 pickListService.generatePickListForOrder(orderId);
             }),
+            new MenuOption(6, "Generate wave pick list for several orders", () -> {
+                System.out.print("Enter order IDs separated by commas (blank for all ready orders): ");
+                String input = sc.nextLine().trim();
+                List<String> orderIds = new java.util.ArrayList<>();
+                for (String id : input.split(",")) {
+                    if (!id.isBlank()) orderIds.add(id.trim());
+                }
+                System.out.print("Number of pickers (blank for 1): ");
+                String pickersInput = sc.nextLine().trim();
+                int pickers = 1;
+                if (!pickersInput.isEmpty()) {
+                    try {
+                        pickers = Integer.parseInt(pickersInput);
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid number, using 1 picker.");
+                    }
+                }
+                pickListService.generateWavePickList(orderIds, pickers);
+            }),
             new MenuOption(0, "Return to Main Menu", () -> System.out.println("Returning to Main Menu..."))
         };
     }
@@ -94,17 +115,16 @@ public class WarehouseMenu implements Menu {
      * @return HashMap of batch ID to ManufacturingBatch object.
      */
     public HashMap<Integer, ManufacturingBatch> loadAllBatches() {
-        List<String> lines = FileManager.readLines("data/batches.csv");
         HashMap<Integer, ManufacturingBatch> batchesById = new HashMap<>();
-        for (int i = 1; i < lines.size(); i++) { // Skip header line
-            ManufacturingBatch batch = loadBatchFromString(lines.get(i));
-            batchesById.put(batch.getId(), batch);
+        try (Stream<String> lines = FileManager.lines("data/batches.csv")) {
+            lines.skip(1) // Skip header line
+                    .map(this::loadBatchFromString)
+                    .forEach(batch -> batchesById.put(batch.getId(), batch));
         }
         return batchesById;
     }
 
     public ManufacturingBatch loadBatchFromString(String batchString) {
-        ProductRepository productRepo = new ProductRepository("data/products.txt");
         String[] parts = batchString.split(",");
         int batchId = Integer.parseInt(parts[0]);
         int productId = Integer.parseInt(parts[1]);
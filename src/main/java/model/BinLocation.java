@@ -0,0 +1,107 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A warehouse location broken into aisle, bay and bin.
+ * Accepts the labelled form used in locations.csv ("Aisle 2 - Shelf C",
+ * "High Rack - Slot 12") and positional codes ("02-14-3", "A2-14-C").
+ * Letters count as positions (A = 1). Parts that are missing are 0; a location
+ * with no aisle at all (e.g. "Back Wall - Bin F") is reported as UNKNOWN_AISLE
+ * so routes visit it last.
+ */
+public class BinLocation {
+
+    public static final int UNKNOWN_AISLE = Integer.MAX_VALUE;
+
+    private final String label;
+    private final int aisle;
+    private final int bay;
+    private final int bin;
+
+    public BinLocation(String label, int aisle, int bay, int bin) {
+        this.label = label == null ? "" : label;
+        this.aisle = aisle;
+        this.bay = bay;
+        this.bin = bin;
+    }
+
+    public static BinLocation parse(String label) {
+        if (label == null || label.isBlank()) {
+            return new BinLocation(label, UNKNOWN_AISLE, 0, 0);
+        }
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : label.trim().split("[\\s\\-_/]+")) {
+            if (!token.isEmpty()) tokens.add(token.toLowerCase(Locale.ROOT));
+        }
+
+        int aisle = UNKNOWN_AISLE, bay = 0, bin = 0;
+        boolean labelled = false;
+        for (int i = 0; i < tokens.size() - 1; i++) {
+            int value = position(tokens.get(i + 1));
+            if (value < 0) continue;
+            switch (tokens.get(i)) {
+                case "aisle", "row" -> aisle = value;
+                case "bay", "rack", "section" -> bay = value;
+                case "bin", "shelf", "slot", "level" -> bin = value;
+                default -> {
+                    continue;
+                }
+            }
+            labelled = true;
+            i++;
+        }
+
+        if (!labelled) {
+            // Positional code: aisle, bay, bin
+            int[] parts = new int[3];
+            int found = 0;
+            for (String token : tokens) {
+                int value = position(token);
+                if (value < 0 || found == parts.length) {
+                    found = -1;
+                    break;
+                }
+                parts[found++] = value;
+            }
+            if (found > 0) {
+                aisle = parts[0];
+                bay = parts[1];
+                bin = parts[2];
+            }
+        }
+        return new BinLocation(label, aisle, bay, bin);
+    }
+
+    /**
+     * Reads "12", "c", or a letter prefix with digits such as "a2" (aisle A2 = 2).
+     *
+     * @return the position, or -1 if token is not one
+     */
+    private static int position(String token) {
+        if (token.isEmpty()) return -1;
+        if (token.chars().allMatch(Character::isDigit)) {
+            return token.length() > 9 ? -1 : Integer.parseInt(token);
+        }
+        if (token.length() == 1 && Character.isLetter(token.charAt(0))) {
+            return token.charAt(0) - 'a' + 1;
+        }
+        String digits = token.substring(1);
+        if (Character.isLetter(token.charAt(0)) && !digits.isEmpty() && digits.chars().allMatch(Character::isDigit)) {
+            return position(digits);
+        }
+        return -1;
+    }
+
+    public String getLabel() { return label; }
+    public int getAisle() { return aisle; }
+    public int getBay() { return bay; }
+    public int getBin() { return bin; }
+
+    public boolean hasAisle() {
+        return aisle != UNKNOWN_AISLE;
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import util.AtomicFileWriter;
+
 import java.io.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -113,23 +115,24 @@ public class CampaignRepository implements Repository<Campaign> {
     }
 
     public void saveToFile() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (Campaign campaign : campaigns) {
-                String line = String.format("%d,%s,%s,%.2f,%s,%s,%s,%s,%s,%.2f",
-                        campaign.getId(),
-                        campaign.getName(),
-                        campaign.getTargetCollection(),
-                        campaign.getBudget(),
-                        campaign.getStartDate(),
-                        campaign.getEndDate(),
-                        campaign.getStatus(),
-                        campaign.getAssetLinks() != null ? campaign.getAssetLinks() : "",
-                        campaign.getAdCopyText() != null ? campaign.getAdCopyText() : "",
-                        campaign.getTotalSalesRevenue()
-                );
-                writer.write(line);
-                writer.newLine();
-            }
+        List<String> lines = new ArrayList<>();
+        for (Campaign campaign : campaigns) {
+            String line = String.format("%d,%s,%s,%.2f,%s,%s,%s,%s,%s,%.2f",
+                    campaign.getId(),
+                    campaign.getName(),
+                    campaign.getTargetCollection(),
+                    campaign.getBudget(),
+                    campaign.getStartDate(),
+                    campaign.getEndDate(),
+                    campaign.getStatus(),
+                    campaign.getAssetLinks() != null ? campaign.getAssetLinks() : "",
+                    campaign.getAdCopyText() != null ? campaign.getAdCopyText() : "",
+                    campaign.getTotalSalesRevenue()
+            );
+            lines.add(line);
+        }
+        try {
+            AtomicFileWriter.write(filePath, lines);
         } catch (IOException e) {
             System.err.println("Error saving campaigns: " + e.getMessage());
         }
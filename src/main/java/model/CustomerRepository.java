@@ -1,5 +1,7 @@
 package model;
 
+import util.AtomicFileWriter;
+
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -121,14 +123,17 @@ public class CustomerRepository implements Repository<Customer> {
         File file = new File(filePath);
         file.getParentFile().mkdirs();
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
-            // Write header
-            writer.println("id,name,email,phone");
+        List<String> lines = new ArrayList<>();
+        // Write header
+        lines.add("id,name,email,phone");
 
-            // Write customer data
-            for (Customer customer : customers) {
-                writer.println(customer.toCsv());
-            }
+        // Write customer data
+        for (Customer customer : customers) {
+            lines.add(customer.toCsv());
+        }
+
+        try {
+            AtomicFileWriter.write(filePath, lines);
         } catch (IOException e) {
             System.err.println("Error saving customers: " + e.getMessage());
         }
@@ -1,5 +1,7 @@
 package model;
 
+import util.AtomicFileWriter;
+
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -133,14 +135,17 @@ public class EventRepository implements Repository<Event> {
         File file = new File(filePath);
         file.getParentFile().mkdirs();
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
-            // Write header
-            writer.println("id,name,venue,date,cost,capacity,status,rsvpCount,staffIds,rejectionNotes");
+        List<String> lines = new ArrayList<>();
+        // Write header
+        lines.add("id,name,venue,date,cost,capacity,status,rsvpCount,staffIds,rejectionNotes");
 
-            // Write event data
-            for (Event event : events) {
-                writer.println(event.toCsv());
-            }
+        // Write event data
+        for (Event event : events) {
+            lines.add(event.toCsv());
+        }
+
+        try {
+            AtomicFileWriter.write(filePath, lines);
         } catch (IOException e) {
             System.err.println("Error saving events: " + e.getMessage());
         }
@@ -1,56 +1,495 @@
 package model;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import util.AtomicFileWriter;
 import util.FileManager;
+import util.IntIntMap;
 
+/**
+ * Stock levels per product, safe to share between several sale terminals.
+ * inventory.txt holds a snapshot; every change since then is appended to a
+ * journal (productId,delta,timestamp,reason) and replayed on startup. Once the
+ * journal grows past COMPACT_THRESHOLD entries it is folded back into the
+ * snapshot and its entries are moved to the history file.
+ *
+ * Journal entries are deltas, so each must be applied exactly once. Compaction
+ * therefore first renames the journal to a sealed file numbered with the next
+ * generation, then writes a snapshot whose header records that generation, and
+ * only then archives and deletes the sealed file. On startup a sealed journal is
+ * replayed only if the snapshot does not cover its generation yet.
+ *
+ * Products are spread over lock stripes so terminals selling different products
+ * do not contend. A sale first reserves units with tryReserve, then either
+ * commits them (stock is reduced and journaled) or releases them.
+ *
+ * Journal writes are group-committed: each change is queued, and whichever
+ * waiting thread finds no write in progress appends everything queued so far
+ * in one write. A change returns only once its entry is in the journal.
+ */
 public class Inventory {
 
-    private HashMap<Integer, Integer> stock = new HashMap<>();
+    public static final String REASON_SALE = "SALE";
+    public static final String REASON_RESTOCK = "RESTOCK";
+
+    private static final int COMPACT_THRESHOLD = 500;
+    private static final String SEALED_SUFFIX = ".compacting";
+    private static final int STRIPE_BITS = 4;
+    private static final int STRIPE_COUNT = 1 << STRIPE_BITS;
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
     private String filename;
+    private final String journalFile;
+    private final String historyFile;
+    private final AtomicInteger journalEntries = new AtomicInteger();
+    // Newest journal generation already folded into the snapshot
+    private int generation = 0;
+    private final Object journalLock = new Object();
+    // Group commit state, guarded by journalLock
+    private List<String> journalQueue = new ArrayList<>();
+    private long entriesQueued = 0;
+    private long entriesWritten = 0;
+    private boolean journalWriting = false;
+    private boolean journalFailed = false;
+    // Kept open between batches; only the thread currently writing touches it
+    private Writer journalWriter;
+    // Stock changes hold the read side; compaction takes the write side so the
+    // snapshot and the journal it replaces always agree
+    private final ReentrantReadWriteLock compactionLock = new ReentrantReadWriteLock();
+
+    private static class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final IntIntMap stock = new IntIntMap();
+        final IntIntMap reserved = new IntIntMap();
+
+        int available(int productId) {
+            return stock.get(productId, 0) - reserved.get(productId, 0);
+        }
+    }
 
     public Inventory(String filename) {
         this.filename = filename;
+        this.journalFile = siblingFile(filename, "_journal.txt");
+        this.historyFile = siblingFile(filename, "_history.txt");
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
         loadStock();
+        replayJournal();
     }
-    
+
     private void loadStock() {
-        List<String> lines = util.FileManager.readLines(filename);
+        try (Stream<String> lines = FileManager.lines(filename)) {
+            lines.forEach(line -> {
+                if(line.startsWith("productId")) {
+                    generation = parseGeneration(line);
+                    return;
+                }
 
-        for (String line : lines){
-            if(line.startsWith("productId")) continue;
+                String [] parts = line.split(",");
+                int pid = Integer.parseInt(parts[0]);
+                int quantity = Integer.parseInt(parts[1]);
+                stripeFor(pid).stock.put(pid, quantity);
+            });
+        }
+    }
 
-            String [] parts = line.split(",");
-            int pid = Integer.parseInt(parts[0]);
-            int quantity = Integer.parseInt(parts[1]);
-            stock.put(pid, quantity);
+    private static int parseGeneration(String header) {
+        int at = header.indexOf("generation=");
+        if (at < 0) return 0;
+        try {
+            return Integer.parseInt(header.substring(at + "generation=".length()).trim());
+        } catch (NumberFormatException e) {
+            return 0;
         }
     }
-    
+
+    private void replayJournal() {
+        // Sealed journals hold older changes than the live one
+        List<Integer> sealed = sealedGenerations();
+        for (int sealedGeneration : sealed) {
+            if (sealedGeneration > generation) {
+                replayFile(sealedFile(sealedGeneration));
+            }
+        }
+        // If the torn tail cannot be cut off, new entries must not be appended after it
+        if (!replayFile(journalFile)) {
+            journalFailed = true;
+        }
+
+        // A compaction was interrupted or left a sealed journal unarchived; finish it now
+        if (!sealed.isEmpty() || journalFailed || journalEntries.get() >= COMPACT_THRESHOLD) {
+            compact();
+        }
+    }
+
+    /**
+     * @return false if a torn last entry could not be cut off the file
+     */
+    private boolean replayFile(String file) {
+        if (!new File(file).exists()) return true;
+
+        // A crash mid-append leaves a partial last entry; it is dropped, not replayed
+        boolean repaired = FileManager.truncateTornLine(file);
+        try (Stream<String> lines = FileManager.lines(file)) {
+            lines.forEach(line -> {
+                String[] parts = line.split(",");
+                if (parts.length < 2) return;
+                try {
+                    int pid = Integer.parseInt(parts[0]);
+                    int delta = Integer.parseInt(parts[1]);
+                    stripeFor(pid).stock.add(pid, delta);
+                    journalEntries.incrementAndGet();
+                } catch (NumberFormatException e) {
+                    // Skip a malformed entry
+                }
+            });
+        }
+        return repaired;
+    }
+
+    /**
+     * @return true if at least one unit is on hand and not reserved by another sale
+     */
     public boolean hasStock(int productId){
-        return stock.getOrDefault(productId,0) > 0;
+        return getAvailable(productId) > 0;
     }
 
     public int getStock(int productId){
-        return stock.getOrDefault(productId, 0);
+        Stripe stripe = stripeFor(productId);
+        stripe.lock.lock();
+        try {
+            return stripe.stock.get(productId, 0);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public int getAvailable(int productId) {
+        Stripe stripe = stripeFor(productId);
+        stripe.lock.lock();
+        try {
+            return stripe.available(productId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Atomically sets aside quantity units for an in-progress sale.
+     *
+     * @return false if fewer than quantity units are available
+     */
+    public boolean tryReserve(int productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero.");
+        }
+        Stripe stripe = stripeFor(productId);
+        stripe.lock.lock();
+        try {
+            if (stripe.available(productId) < quantity) {
+                return false;
+            }
+            stripe.reserved.add(productId, quantity);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Turns a reservation into a sale: the units leave stock and are journaled.
+     */
+    public void commit(int productId, int quantity) {
+        applyDelta(productId, -quantity, quantity, REASON_SALE);
+    }
+
+    /**
+     * Returns reserved units to the available pool, e.g. after a failed payment.
+     */
+    public void release(int productId, int quantity) {
+        Stripe stripe = stripeFor(productId);
+        stripe.lock.lock();
+        try {
+            releaseReservation(stripe, productId, quantity);
+        } finally {
+            stripe.lock.unlock();
+        }
     }
 
     public void reduceStock(int productId){
-        stock.put(productId, stock.get(productId) - 1); // Reduces product by 1
-        saveStock();
+        applyDelta(productId, -1, 0, REASON_SALE); // Reduces product by 1
     }
 
     public void addStock(int productId, int amount){
-        stock.put(productId, stock.getOrDefault(productId,0) + amount);
-        saveStock();
+        addStock(productId, amount, REASON_RESTOCK);
     }
 
-    private void saveStock() {
-        List<String> lines = new ArrayList<>();
-        lines.add("productId, quantity");
+    public void addStock(int productId, int amount, String reason){
+        applyDelta(productId, amount, 0, reason);
+    }
+
+    private void applyDelta(int productId, int delta, int reservedToRelease, String reason) {
+        compactionLock.readLock().lock();
+        try {
+            Stripe stripe = stripeFor(productId);
+            stripe.lock.lock();
+            try {
+                if (reservedToRelease > 0) {
+                    releaseReservation(stripe, productId, reservedToRelease);
+                }
+                stripe.stock.add(productId, delta);
+            } finally {
+                stripe.lock.unlock();
+            }
+
+            String entry = productId + "," + delta + "," + LocalDateTime.now() + "," + reason;
+            long ticket;
+            synchronized (journalLock) {
+                journalQueue.add(entry);
+                ticket = ++entriesQueued;
+            }
+            // Held under the read lock, so compaction never seals a journal with entries still queued
+            awaitJournal(ticket);
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+
+        boolean failed;
+        synchronized (journalLock) {
+            failed = journalFailed;
+        }
+        // Journal unavailable: a compaction snapshots the change instead
+        if (failed || journalEntries.get() >= COMPACT_THRESHOLD) {
+            compactIfDue();
+        }
+    }
 
-        for (int pid : stock.keySet()){
-            lines.add(pid + "," + stock.get(pid));
+    /**
+     * Compacts unless another thread already did while this one waited for the lock,
+     * so registers crossing the threshold together run only one compaction.
+     */
+    private void compactIfDue() {
+        compactionLock.writeLock().lock();
+        try {
+            synchronized (journalLock) {
+                if (!journalFailed && journalEntries.get() < COMPACT_THRESHOLD) return;
+            }
+            compact();
+        } finally {
+            compactionLock.writeLock().unlock();
         }
-        FileManager.writeLines(filename, lines);
+    }
+
+    /**
+     * Waits until the entry numbered ticket is in the journal, writing the queue
+     * ourselves if no other thread is.
+     */
+    private void awaitJournal(long ticket) {
+        List<String> batch;
+        boolean interrupted = false;
+        synchronized (journalLock) {
+            while (entriesWritten < ticket && journalWriting) {
+                try {
+                    journalLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (entriesWritten >= ticket) {
+                if (interrupted) Thread.currentThread().interrupt();
+                return;
+            }
+            // Our entry is still queued, so the batch includes it
+            journalWriting = true;
+            batch = journalQueue;
+            journalQueue = new ArrayList<>();
+        }
+
+        boolean written = false;
+        try {
+            written = writeJournal(batch);
+        } finally {
+            synchronized (journalLock) {
+                entriesWritten += batch.size();
+                if (!written) journalFailed = true;
+                journalWriting = false;
+                journalLock.notifyAll();
+            }
+        }
+        if (written) {
+            journalEntries.addAndGet(batch.size());
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private boolean writeJournal(List<String> entries) {
+        try {
+            if (journalWriter == null) {
+                journalWriter = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(journalFile, true), StandardCharsets.UTF_8));
+            }
+            for (String entry : entries) {
+                journalWriter.write(entry);
+                journalWriter.write(System.lineSeparator());
+            }
+            journalWriter.flush();
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error appending to file: " + journalFile);
+            closeJournal();
+            return false;
+        }
+    }
+
+    private void closeJournal() {
+        if (journalWriter == null) return;
+        try {
+            journalWriter.close();
+        } catch (IOException e) {
+            // Everything written was already flushed
+        }
+        journalWriter = null;
+    }
+
+    private static void releaseReservation(Stripe stripe, int productId, int quantity) {
+        int held = stripe.reserved.get(productId, 0);
+        if (held < quantity) {
+            throw new IllegalStateException("Only " + held + " units of product " + productId + " are reserved.");
+        }
+        if (held == quantity) {
+            stripe.reserved.remove(productId);
+        } else {
+            stripe.reserved.put(productId, held - quantity);
+        }
+    }
+
+    /**
+     * Writes the current stock levels to the snapshot file and moves the
+     * journal entries it now covers into the history file.
+     * If any step fails, the sealed journal stays and is folded in by a later
+     * compaction or replayed on the next start.
+     */
+    private void compact() {
+        compactionLock.writeLock().lock();
+        try {
+            synchronized (journalLock) {
+                List<Integer> sealed = sealedGenerations();
+                int nextGeneration = Math.max(generation, sealed.isEmpty() ? 0 : sealed.getLast()) + 1;
+
+                // Closed first: an open file cannot be renamed on every platform
+                closeJournal();
+                File journal = new File(journalFile);
+                if (journal.exists() && !journal.renameTo(new File(sealedFile(nextGeneration)))) {
+                    System.out.println("Error compacting inventory: could not seal " + journalFile);
+                    return;
+                }
+                if (!saveStock(nextGeneration)) {
+                    return;
+                }
+                generation = nextGeneration;
+                journalEntries.set(0);
+                journalFailed = false;
+                archiveSealedJournals();
+            }
+        } finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves sealed journals the snapshot covers into the history file, oldest first.
+     * A sealed journal is deleted only once its entries are in the history.
+     */
+    private void archiveSealedJournals() {
+        for (int sealedGeneration : sealedGenerations()) {
+            if (sealedGeneration > generation) break;
+
+            String sealed = sealedFile(sealedGeneration);
+            List<String> entries = FileManager.readLines(sealed);
+            // A crash after the history append but before the delete must not archive twice
+            boolean archived = !entries.isEmpty()
+                    && FileManager.readLastLines(historyFile, 1).equals(List.of(entries.getLast()));
+            if (!archived && !FileManager.appendLines(historyFile, entries)) {
+                System.out.println("Error compacting inventory: could not archive " + sealed);
+                return;
+            }
+            new File(sealed).delete();
+        }
+    }
+
+    /**
+     * @return generations of the sealed journals on disk, ascending
+     */
+    private List<Integer> sealedGenerations() {
+        File journal = new File(journalFile);
+        File dir = journal.getAbsoluteFile().getParentFile();
+        String prefix = journal.getName() + ".";
+        List<Integer> generations = new ArrayList<>();
+        String[] names = dir == null ? null : dir.list();
+        if (names == null) return generations;
+
+        for (String name : names) {
+            if (!name.startsWith(prefix) || !name.endsWith(SEALED_SUFFIX)) continue;
+            try {
+                generations.add(Integer.parseInt(name.substring(prefix.length(), name.length() - SEALED_SUFFIX.length())));
+            } catch (NumberFormatException e) {
+                // Not one of ours
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    private String sealedFile(int sealedGeneration) {
+        return journalFile + "." + sealedGeneration + SEALED_SUFFIX;
+    }
+
+    private boolean saveStock(int snapshotGeneration) {
+        IntIntMap snapshot = new IntIntMap();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.stock.forEach(snapshot::put);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        List<String> lines = new ArrayList<>(snapshot.size() + 1);
+        lines.add("productId, quantity, generation=" + snapshotGeneration);
+
+        for (int pid : snapshot.sortedKeys()){
+            lines.add(pid + "," + snapshot.get(pid, 0));
+        }
+        try {
+            AtomicFileWriter.write(filename, lines);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error writing file: " + filename);
+            return false;
+        }
+    }
+
+    private Stripe stripeFor(int productId) {
+        // Top hash bits pick the stripe; IntIntMap slots come from the low bits
+        return stripes[(productId * 0x9E3779B9) >>> (Integer.SIZE - STRIPE_BITS)];
+    }
+
+    private static String siblingFile(String filename, String suffix) {
+        int dot = filename.lastIndexOf('.');
+        String base = dot > filename.lastIndexOf('/') ? filename.substring(0, dot) : filename;
+        return base + suffix;
     }
 }
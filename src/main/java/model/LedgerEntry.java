@@ -0,0 +1,87 @@
+package model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of the finance ledger.
+ * The balance, revenue and expense totals are the fold of every entry's effect.
+ */
+public class LedgerEntry {
+
+    public enum Type {
+        OPENING,     // balance carried in from before the ledger existed
+        SALE,
+        REVENUE,     // other income, e.g. fashion shows
+        RETURN,
+        EXPENSE,
+        EVENT_COST
+    }
+
+    private final LocalDateTime timestamp;
+    private final Type type;
+    private final double amount;
+    private final String description;
+
+    public LedgerEntry(Type type, double amount, String description) {
+        this(LocalDateTime.now(), type, amount, description);
+    }
+
+    public LedgerEntry(LocalDateTime timestamp, Type type, double amount, String description) {
+        this.timestamp = timestamp;
+        this.type = type;
+        this.amount = amount;
+        this.description = description == null ? "" : description;
+    }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public Type getType() { return type; }
+    public double getAmount() { return amount; }
+    public String getDescription() { return description; }
+
+    public double balanceEffect() {
+        return switch (type) {
+            case OPENING, SALE, REVENUE -> amount;
+            case RETURN, EXPENSE, EVENT_COST -> -amount;
+        };
+    }
+
+    public double revenueEffect() {
+        return switch (type) {
+            case SALE, REVENUE -> amount;
+            case RETURN -> -amount;
+            default -> 0;
+        };
+    }
+
+    public double expenseEffect() {
+        return switch (type) {
+            case EXPENSE, EVENT_COST -> amount;
+            default -> 0;
+        };
+    }
+
+    // CSV serialization: timestamp,type,amount,description (description may contain commas)
+    public String toCSV() {
+        return timestamp + "," + type + "," + amount + "," + description.replace("\n", " ");
+    }
+
+    public static LedgerEntry fromCSV(String line) {
+        String[] parts = line.split(",", 4);
+        if (parts.length < 3) return null;
+
+        try {
+            LocalDateTime timestamp = LocalDateTime.parse(parts[0]);
+            Type type = Type.valueOf(parts[1]);
+            double amount = Double.parseDouble(parts[2]);
+            String description = parts.length > 3 ? parts[3] : "";
+            return new LedgerEntry(timestamp, type, amount, description);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s  %-10s $%10.2f  %s", timestamp.withNano(0), type, amount, description);
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import util.AtomicFileWriter;
+
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -143,11 +145,12 @@ public class MaterialPrototypeRepository {
 
     private void saveSpecifications() {
         ensureParentDirectory(specificationsFilePath);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(specificationsFilePath))) {
-            for (MaterialSpecification spec : specifications) {
-                writer.write(spec.toCSV());
-                writer.newLine();
-            }
+        List<String> lines = new ArrayList<>();
+        for (MaterialSpecification spec : specifications) {
+            lines.add(spec.toCSV());
+        }
+        try {
+            AtomicFileWriter.write(specificationsFilePath, lines);
         } catch (IOException e) {
             System.err.println("Error saving specifications: " + e.getMessage());
         }
@@ -155,11 +158,12 @@ public class MaterialPrototypeRepository {
 
     private void savePrototypes() {
         ensureParentDirectory(prototypesFilePath);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(prototypesFilePath))) {
-            for (MaterialPrototype prototype : prototypes) {
-                writer.write(prototype.toCSV());
-                writer.newLine();
-            }
+        List<String> lines = new ArrayList<>();
+        for (MaterialPrototype prototype : prototypes) {
+            lines.add(prototype.toCSV());
+        }
+        try {
+            AtomicFileWriter.write(prototypesFilePath, lines);
         } catch (IOException e) {
             System.err.println("Error saving prototypes: " + e.getMessage());
         }
@@ -167,11 +171,12 @@ public class MaterialPrototypeRepository {
 
     private void saveFeedback() {
         ensureParentDirectory(feedbackFilePath);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(feedbackFilePath))) {
-            for (MaterialFeedback feedback : allFeedback) {
-                writer.write(feedback.toCSV());
-                writer.newLine();
-            }
+        List<String> lines = new ArrayList<>();
+        for (MaterialFeedback feedback : allFeedback) {
+            lines.add(feedback.toCSV());
+        }
+        try {
+            AtomicFileWriter.write(feedbackFilePath, lines);
         } catch (IOException e) {
             System.err.println("Error saving feedback: " + e.getMessage());
         }
@@ -2,15 +2,20 @@ package model;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class OnlineOrder {
 
+    public static final String READY_TO_FULFILL = "READY_TO_FULFILL";
+    public static final String PICKING = "PICKING";
+    public static final String SHIPPED = "SHIPPED";
+
     private String id;
     private String customerName;
     private String shippingAddress;
     private String customerEmail;  // Email for event invitations
-    private String status;         // e.g. "READY_TO_FULFILL", "SHIPPED"
-    private String trackingNumber; // can be null until shipped
+    private final AtomicReference<String> status = new AtomicReference<>(READY_TO_FULFILL); // e.g. "READY_TO_FULFILL", "SHIPPED"
+    private volatile String trackingNumber; // can be null until shipped
     private List<OrderLine> lines;
 
     public OnlineOrder(String id, String customerName, String shippingAddress) {
@@ -18,7 +23,6 @@ public class OnlineOrder {
         this.customerName = customerName;
         this.shippingAddress = shippingAddress;
         this.customerEmail = null;
-        this.status = "READY_TO_FULFILL";
         this.lines = new ArrayList<>();
     }
 
@@ -27,7 +31,6 @@ public class OnlineOrder {
         this.customerName = customerName;
         this.shippingAddress = shippingAddress;
         this.customerEmail = customerEmail;
-        this.status = "READY_TO_FULFILL";
         this.lines = new ArrayList<>();
     }
 
@@ -60,11 +63,28 @@ public class OnlineOrder {
     }
 
     public String getStatus() {
-        return status;
+        return status.get();
     }
 
     public void setStatus(String status) {
-        this.status = status;
+        this.status.set(status);
+    }
+
+    /**
+     * Atomically changes the status from expected (compared ignoring case) to next.
+     *
+     * @return false if the order was not in status expected, e.g. another worker claimed it first
+     */
+    public boolean compareAndSetStatus(String expected, String next) {
+        while (true) {
+            String current = status.get();
+            if (current == null || !current.equalsIgnoreCase(expected)) {
+                return false;
+            }
+            if (status.compareAndSet(current, next)) {
+                return true;
+            }
+        }
     }
 
     public String getTrackingNumber() {
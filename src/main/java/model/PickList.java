@@ -5,18 +5,27 @@ import java.util.List;
 
 public class PickList {
     private final String id;
-    private final String orderId;
+    private final List<String> orderIds;
     private final String createdAt;
     private final List<PickItem> items = new ArrayList<>();
 
     public PickList(String id, String orderId, String createdAt) {
+        this(id, List.of(orderId), createdAt);
+    }
+
+    /**
+     * A wave pick list covering several orders.
+     */
+    public PickList(String id, List<String> orderIds, String createdAt) {
         this.id = id;
-        this.orderId = orderId;
+        this.orderIds = List.copyOf(orderIds);
         this.createdAt = createdAt;
     }
 
     public String getId() { return id; }
-    public String getOrderId() { return orderId; }
+    // Wave lists join their order ids with ';' so the CSV column stays a single field
+    public String getOrderId() { return String.join(";", orderIds); }
+    public List<String> getOrderIds() { return orderIds; }
     public String getCreatedAt() { return createdAt; }
     public List<PickItem> getItems() { return items; }
 
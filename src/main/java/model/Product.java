@@ -28,6 +28,13 @@ public class Product {
         this.approvedVendorIDs = approvedVendorIDs != null ? approvedVendorIDs : new ArrayList<>();
     }
 
+    /**
+     * Copies other, including its own copy of the approved vendor list.
+     */
+    public Product (Product other){
+        this(other.id, other.name, other.price, other.lowStockThreshold, new ArrayList<>(other.approvedVendorIDs));
+    }
+
     public int getId() {return id;}
     public String getName() {return name;}
     public double getPrice() {return price;}
@@ -2,54 +2,60 @@ package model;
 
 import util.FileManager;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Product catalog backed by products.txt.
+ * The file is parsed once into id and name indexes and only re-read when its
+ * modification stamp changes, so lookups from sale and receiving loops stay in memory.
+ * Lookups return copies of the cached products, so changing one (e.g. its price)
+ * has no effect until it is passed to saveAll.
+ */
+public class ProductRepository implements Repository<Product> {
+
+    private static final String HEADER = "id,name,price,lowStockThreshold,approvedVendorIDs";
+
+    private final String filePath;
+    private final Map<Integer, Product> byId = new LinkedHashMap<>();
+    private final Map<String, Product> byName = new HashMap<>();
+    private long loadedModified = -1;
+    private long loadedLength = -1;
+
+    public ProductRepository(String filePath) {
+        this.filePath = filePath;
+    }
 
-public record ProductRepository(String filePath) implements Repository<Product> {
+    public String filePath() {
+        return filePath;
+    }
 
     @Override
-    public List<Product> getAll() {
-        List<String> lines = FileManager.readLines(filePath);
-        List<Product> products = new ArrayList<>();
-        for (int i = 1; i < lines.size(); i++) {
-            try {
-                products.add(parseLine(lines.get(i)));
-            } catch (Exception e) {
-                // Ignore parsing errors
-            }
+    public synchronized List<Product> getAll() {
+        refreshIfStale();
+        List<Product> products = new ArrayList<>(byId.size());
+        for (Product p : byId.values()) {
+            products.add(new Product(p));
         }
-
         return products;
     }
 
     @Override
-    public Product findById(int id) {
-        List<String> lines = FileManager.readLines(filePath);
-
-        for (int i = 1; i < lines.size(); i++) {
-            String[] parts = lines.get(i).split(",");
-
-            if (Integer.parseInt(parts[0]) == id) {
-                return parseLine(lines.get(i));
-            }
-        }
-
-        return null;
+    public synchronized Product findById(int id) {
+        refreshIfStale();
+        return copyOf(byId.get(id));
     }
 
     @Override
-    public Product findByName(String name) {
-        List<String> lines = FileManager.readLines(filePath);
-
-        for (int i = 1; i < lines.size(); i++) {
-            String[] parts = lines.get(i).split(",");
-
-            if (parts[1].equalsIgnoreCase(name)) {
-                return parseLine(lines.get(i));
-            }
-        }
-
-        return null;
+    public synchronized Product findByName(String name) {
+        if (name == null) return null;
+        refreshIfStale();
+        return copyOf(byName.get(nameKey(name)));
     }
 
     @Override
@@ -71,9 +77,9 @@ public record ProductRepository(String filePath) implements Repository<Product>
         }
     }
 
-    public void saveAll(List<Product> products) {
+    public synchronized void saveAll(List<Product> products) {
         List<String> lines = new ArrayList<>();
-        lines.add("id,name,price,lowStockThreshold,approvedVendorIDs");
+        lines.add(HEADER);
         for (Product p : products) {
             lines.add(p.getId() + "," +
                      p.getName() + "," +
@@ -82,5 +88,59 @@ public record ProductRepository(String filePath) implements Repository<Product>
                      p.getApprovedVendorIDsAsString());
         }
         FileManager.writeLines(filePath, lines);
+
+        // Copied so the caller's later changes do not reach the cache
+        List<Product> saved = new ArrayList<>(products.size());
+        for (Product p : products) {
+            saved.add(new Product(p));
+        }
+        rebuildIndexes(saved);
+        File file = new File(filePath);
+        loadedModified = file.lastModified();
+        loadedLength = file.length();
+    }
+
+    /**
+     * Reloads the indexes if products.txt was changed since the last load
+     * (for example by another repository instance saving a price change).
+     */
+    private void refreshIfStale() {
+        File file = new File(filePath);
+        long modified = file.lastModified();
+        long length = file.length();
+        if (modified == loadedModified && length == loadedLength) {
+            return;
+        }
+
+        List<String> lines = FileManager.readLines(filePath);
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i < lines.size(); i++) {
+            try {
+                products.add(parseLine(lines.get(i)));
+            } catch (Exception e) {
+                // Ignore parsing errors
+            }
+        }
+        rebuildIndexes(products);
+        loadedModified = modified;
+        loadedLength = length;
+    }
+
+    private void rebuildIndexes(List<Product> products) {
+        byId.clear();
+        byName.clear();
+        for (Product p : products) {
+            // First occurrence wins, matching the old top-to-bottom scan
+            byId.putIfAbsent(p.getId(), p);
+            byName.putIfAbsent(nameKey(p.getName()), p);
+        }
+    }
+
+    private static Product copyOf(Product product) {
+        return product == null ? null : new Product(product);
+    }
+
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
     }
 }
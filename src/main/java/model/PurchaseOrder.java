@@ -1,5 +1,7 @@
 package model;
 
+import util.CsvScanner;
+
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -158,27 +160,55 @@ public class PurchaseOrder {
             String createdDate = unescapeCsv(parts[11]);
             String receivedDate = unescapeCsv(parts[12]);
 
-            PurchaseOrder po = new PurchaseOrder(poId, prodId, prodName, vendId, vendName, contractId,
-                    qty, unitCost, totalCost, expectedDate, status, createdDate, receivedDate);
+            return loaded(new PurchaseOrder(poId, prodId, prodName, vendId, vendName, contractId,
+                    qty, unitCost, totalCost, expectedDate, status, createdDate, receivedDate));
+        } catch (Exception e) {
+            System.err.println("Error parsing PurchaseOrder CSV: " + e.getMessage());
+            return null;
+        }
+    }
 
-            // Update static counter to avoid ID conflicts
-            if (poId >= count) {
-                count = poId + 1;
-            }
+    /**
+     * Same as fromCSV, reading the fields straight from the scanner's current line.
+     */
+    public static PurchaseOrder fromRecord(CsvScanner record) {
+        if (record.fieldCount() < 13) return null;
 
-            return po;
+        try {
+            return loaded(new PurchaseOrder(
+                    record.getInt(0),
+                    record.getInt(1),
+                    unescapeCsv(record.getString(2)),
+                    record.getInt(3),
+                    unescapeCsv(record.getString(4)),
+                    record.getInt(5),
+                    record.getInt(6),
+                    record.getDouble(7),
+                    record.getDouble(8),
+                    unescapeCsv(record.getString(9)),
+                    unescapeCsv(record.getString(10)),
+                    unescapeCsv(record.getString(11)),
+                    unescapeCsv(record.getRest(12))));
         } catch (Exception e) {
             System.err.println("Error parsing PurchaseOrder CSV: " + e.getMessage());
             return null;
         }
     }
 
-    private static String escapeCsv(String value) {
+    private static PurchaseOrder loaded(PurchaseOrder po) {
+        // Update static counter to avoid ID conflicts
+        if (po.purchaseOrderId >= count) {
+            count = po.purchaseOrderId + 1;
+        }
+        return po;
+    }
+
+    static String escapeCsv(String value) {
         if (value == null || value.isEmpty()) return "";
         return value.replace(",", "\\,").replace("\n", "\\n");
     }
 
-    private static String unescapeCsv(String value) {
+    static String unescapeCsv(String value) {
         if (value == null || value.isEmpty()) return "";
         return value.replace("\\,", ",").replace("\\n", "\n");
     }
@@ -1,18 +1,82 @@
 package model;
 
+import util.AtomicFileWriter;
+import util.CsvScanner;
+import util.FileManager;
+
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
+/**
+ * Purchase orders backed by purchase_orders.csv.
+ * Orders are held in an id index (in file order) with secondary indexes by
+ * product, vendor and case-folded status. Each index entry remembers what was last
+ * recorded for the order, so an order mutated in place and passed to
+ * updatePurchaseOrder is moved out of its old buckets.
+ *
+ * purchase_orders.csv is a snapshot. Each change after it is one line appended to
+ * purchase_orders_journal.txt:
+ *   CREATED,(purchase order CSV)      UPDATED,(purchase order CSV)
+ *   RECEIVED|COMPLETED|STATUS,id,receivedDate,status
+ *   DELETED,id
+ * Startup loads the snapshot and replays the journal. Once the journal reaches
+ * COMPACT_THRESHOLD entries the snapshot is rewritten and the journal removed.
+ * Every entry states the order's resulting values rather than a delta, so
+ * replaying entries the snapshot already covers is harmless.
+ */
 public class PurchaseOrderRepository {
+    private static final String HEADER =
+            "purchaseOrderId,productId,productName,vendorId,vendorName,contractId,quantity,unitCost,totalCost,expectedDeliveryDate,status,createdDate,receivedDate";
+    private static final int COMPACT_THRESHOLD = 500;
+
     private final String filePath;
-    private List<PurchaseOrder> purchaseOrders;
+    private final String journalFile;
+    private int journalEntries = 0;
+    private final Map<Integer, PurchaseOrder> byId = new LinkedHashMap<>();
+    private final Map<Integer, Set<Integer>> idsByProduct = new HashMap<>();
+    private final Map<Integer, Set<Integer>> idsByVendor = new HashMap<>();
+    private final Map<String, Set<Integer>> idsByStatus = new HashMap<>();
+    // What was last indexed and journaled for each order
+    private final Map<Integer, Recorded> recorded = new HashMap<>();
+
+    private record Recorded(int productId, int vendorId, String status, String receivedDate,
+                            int quantity, double unitCost, String expectedDeliveryDate) {
+        static Recorded of(PurchaseOrder po) {
+            return new Recorded(po.getProductId(), po.getVendorId(), po.getStatus(), po.getReceivedDate(),
+                    po.getQuantity(), po.getUnitCost(), po.getExpectedDeliveryDate());
+        }
+
+        String statusKey() {
+            return PurchaseOrderRepository.statusKey(status);
+        }
+
+        boolean sameDetails(Recorded other) {
+            return productId == other.productId && vendorId == other.vendorId
+                    && quantity == other.quantity && unitCost == other.unitCost
+                    && Objects.equals(expectedDeliveryDate, other.expectedDeliveryDate);
+        }
+    }
 
     public PurchaseOrderRepository(String filePath) {
         this.filePath = filePath;
-        this.purchaseOrders = new ArrayList<>();
+        this.journalFile = siblingFile(filePath, "_journal.txt");
         loadFromFile();
+        replayJournal();
+    }
+
+    private static String siblingFile(String filename, String suffix) {
+        int dot = filename.lastIndexOf('.');
+        String base = dot > filename.lastIndexOf('/') ? filename.substring(0, dot) : filename;
+        return base + suffix;
     }
 
     private void loadFromFile() {
@@ -22,47 +86,108 @@ public class PurchaseOrderRepository {
             return;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean isFirstLine = true;
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue; // Skip header
-                }
-                if (line.trim().isEmpty())
+        try (CsvScanner scanner = CsvScanner.open(filePath)) {
+            scanner.next(); // Skip header
+            while (scanner.next()) {
+                if (scanner.isBlank())
                     continue;
 
-                PurchaseOrder po = PurchaseOrder.fromCSV(line);
+                PurchaseOrder po = PurchaseOrder.fromRecord(scanner);
                 if (po != null) {
-                    purchaseOrders.add(po);
+                    index(po);
                 }
             }
-            System.out.println("Loaded " + purchaseOrders.size() + " purchase orders from file.");
+            System.out.println("Loaded " + byId.size() + " purchase orders from file.");
         } catch (IOException e) {
             System.err.println("Error loading purchase orders: " + e.getMessage());
         }
     }
 
-    private void saveToFile() {
-        File file = new File(filePath);
+    private void replayJournal() {
+        if (!new File(journalFile).exists()) return;
+
+        // A crash mid-append leaves a partial last entry; drop it so the next append starts a fresh line
+        FileManager.truncateTornLine(journalFile);
 
-        // Ensure parent directory exists
-        if (file.getParentFile() != null && !file.getParentFile().exists()) {
-            file.getParentFile().mkdirs();
+        try (Stream<String> lines = FileManager.lines(journalFile)) {
+            lines.forEach(line -> {
+                if (!line.isBlank() && applyEntry(line)) {
+                    journalEntries++;
+                }
+            });
+        }
+        if (journalEntries >= COMPACT_THRESHOLD) {
+            compact();
         }
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            // Write header
-            writer.write(
-                    "purchaseOrderId,productId,productName,vendorId,vendorName,contractId,quantity,unitCost,totalCost,expectedDeliveryDate,status,createdDate,receivedDate");
-            writer.newLine();
+    /**
+     * @return false if the entry is torn or malformed and was skipped
+     */
+    private boolean applyEntry(String entry) {
+        int comma = entry.indexOf(',');
+        if (comma < 0) return false;
+        String type = entry.substring(0, comma);
+        String rest = entry.substring(comma + 1);
 
-            // Write all purchase orders
-            for (PurchaseOrder po : purchaseOrders) {
-                writer.write(po.toCSV());
-                writer.newLine();
+        try {
+            switch (type) {
+                case "CREATED", "UPDATED" -> {
+                    PurchaseOrder po = PurchaseOrder.fromCSV(rest);
+                    if (po == null) return false;
+                    index(po);
+                }
+                case "RECEIVED", "COMPLETED", "STATUS" -> {
+                    String[] parts = rest.split(",", 3);
+                    if (parts.length < 3) return false;
+                    PurchaseOrder po = byId.get(Integer.parseInt(parts[0]));
+                    if (po == null) return true;
+                    // Status last: it is the only field that may hold an escaped comma
+                    po.setStatus(PurchaseOrder.unescapeCsv(parts[2]));
+                    po.setReceivedDate(parts[1]);
+                    index(po);
+                }
+                case "DELETED" -> unindex(Integer.parseInt(rest.trim()));
+                default -> {
+                    return false;
+                }
             }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return false if the entries could not be written
+     */
+    private boolean appendEntries(List<String> entries) {
+        if (entries.isEmpty()) return true;
+        if (!FileManager.appendLines(journalFile, entries)) {
+            System.err.println("Error saving purchase orders: could not write " + journalFile);
+            return false;
+        }
+        journalEntries += entries.size();
+        if (journalEntries >= COMPACT_THRESHOLD) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Rewrites the snapshot with the current orders and removes the journal it now covers.
+     */
+    private void compact() {
+        List<String> lines = new ArrayList<>(byId.size() + 1);
+        lines.add(HEADER);
+        for (PurchaseOrder po : byId.values()) {
+            lines.add(po.toCSV());
+        }
+
+        try {
+            AtomicFileWriter.write(filePath, lines);
+            new File(journalFile).delete();
+            journalEntries = 0;
         } catch (IOException e) {
             System.err.println("Error saving purchase orders: " + e.getMessage());
         }
@@ -70,51 +195,81 @@ public class PurchaseOrderRepository {
 
     // CRUD operations
     public void addPurchaseOrder(PurchaseOrder po) {
-        purchaseOrders.add(po);
-        saveToFile();
+        index(po);
+        appendEntries(List.of("CREATED," + po.toCSV()));
+    }
+
+    /**
+     * Adds many orders with a single journal append. The batch is all or nothing:
+     * if the append fails, none of the orders is kept.
+     *
+     * @return false if the orders could not be saved
+     */
+    public boolean addPurchaseOrders(List<PurchaseOrder> orders) {
+        List<String> entries = new ArrayList<>(orders.size());
+        for (PurchaseOrder po : orders) {
+            index(po);
+            entries.add("CREATED," + po.toCSV());
+        }
+        if (appendEntries(entries)) return true;
+
+        for (PurchaseOrder po : orders) {
+            unindex(po.getPurchaseOrderId());
+        }
+        return false;
     }
 
     public List<PurchaseOrder> getAllPurchaseOrders() {
-        return new ArrayList<>(purchaseOrders);
+        return new ArrayList<>(byId.values());
     }
 
     public PurchaseOrder findById(int purchaseOrderId) {
-        return purchaseOrders.stream()
-                .filter(po -> po.getPurchaseOrderId() == purchaseOrderId)
-                .findFirst()
-                .orElse(null);
+        return byId.get(purchaseOrderId);
     }
 
     public List<PurchaseOrder> findByProductId(int productId) {
-        return purchaseOrders.stream()
-                .filter(po -> po.getProductId() == productId)
-                .collect(Collectors.toList());
+        return lookup(idsByProduct.get(productId));
     }
 
     public List<PurchaseOrder> findByVendorId(int vendorId) {
-        return purchaseOrders.stream()
-                .filter(po -> po.getVendorId() == vendorId)
-                .collect(Collectors.toList());
+        return lookup(idsByVendor.get(vendorId));
     }
 
     public List<PurchaseOrder> findByStatus(String status) {
-        return purchaseOrders.stream()
-                .filter(po -> po.getStatus().equalsIgnoreCase(status))
-                .collect(Collectors.toList());
+        return lookup(idsByStatus.get(statusKey(status)));
     }
 
+    /**
+     * Records po's current state. A change of status alone is journaled as a short
+     * status entry; any other change as the full row.
+     */
     public void updatePurchaseOrder(PurchaseOrder po) {
-        PurchaseOrder existing = findById(po.getPurchaseOrderId());
-        if (existing != null) {
-            purchaseOrders.remove(existing);
-            purchaseOrders.add(po);
-            saveToFile();
+        if (!byId.containsKey(po.getPurchaseOrderId())) return;
+
+        Recorded previous = index(po);
+        Recorded current = recorded.get(po.getPurchaseOrderId());
+        if (previous != null && previous.equals(current)) return;
+
+        String entry;
+        if (previous != null && previous.sameDetails(current)) {
+            String type = switch (statusKey(po.getStatus())) {
+                case "received" -> "RECEIVED";
+                case "completed" -> "COMPLETED";
+                default -> "STATUS";
+            };
+            String receivedDate = po.getReceivedDate() == null ? "" : po.getReceivedDate();
+            entry = type + "," + po.getPurchaseOrderId() + "," + receivedDate + ","
+                    + PurchaseOrder.escapeCsv(po.getStatus());
+        } else {
+            entry = "UPDATED," + po.toCSV();
         }
+        appendEntries(List.of(entry));
     }
 
     public void deletePurchaseOrder(int purchaseOrderId) {
-        purchaseOrders.removeIf(po -> po.getPurchaseOrderId() == purchaseOrderId);
-        saveToFile();
+        if (!byId.containsKey(purchaseOrderId)) return;
+        unindex(purchaseOrderId);
+        appendEntries(List.of("DELETED," + purchaseOrderId));
     }
 
     // Utility methods
@@ -127,6 +282,60 @@ public class PurchaseOrderRepository {
     }
 
     public int getOrderCount() {
-        return purchaseOrders.size();
+        return byId.size();
+    }
+
+    /**
+     * Adds or replaces po in every index, removing it from buckets it no longer belongs to.
+     *
+     * @return what was recorded for the order before, or null if it is new
+     */
+    private Recorded index(PurchaseOrder po) {
+        int id = po.getPurchaseOrderId();
+        Recorded now = Recorded.of(po);
+        Recorded previous = recorded.put(id, now);
+        if (previous != null) {
+            removeFromBuckets(id, previous);
+        }
+        byId.put(id, po);
+        idsByProduct.computeIfAbsent(now.productId(), k -> new LinkedHashSet<>()).add(id);
+        idsByVendor.computeIfAbsent(now.vendorId(), k -> new LinkedHashSet<>()).add(id);
+        idsByStatus.computeIfAbsent(now.statusKey(), k -> new LinkedHashSet<>()).add(id);
+        return previous;
+    }
+
+    private void unindex(int purchaseOrderId) {
+        byId.remove(purchaseOrderId);
+        Recorded previous = recorded.remove(purchaseOrderId);
+        if (previous != null) {
+            removeFromBuckets(purchaseOrderId, previous);
+        }
+    }
+
+    private void removeFromBuckets(int id, Recorded keys) {
+        removeFrom(idsByProduct, keys.productId(), id);
+        removeFrom(idsByVendor, keys.vendorId(), id);
+        removeFrom(idsByStatus, keys.statusKey(), id);
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Integer>> index, K key, int id) {
+        Set<Integer> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private List<PurchaseOrder> lookup(Set<Integer> ids) {
+        List<PurchaseOrder> result = new ArrayList<>();
+        if (ids != null) {
+            for (int id : ids) {
+                result.add(byId.get(id));
+            }
+        }
+        return result;
+    }
+
+    private static String statusKey(String status) {
+        return status == null ? "" : status.toLowerCase(Locale.ROOT);
     }
 }
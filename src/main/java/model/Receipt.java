@@ -1,13 +1,13 @@
 package model;
 
 import util.FileManager;
+import util.IdGenerator;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class Receipt {
     private String receiptId;
@@ -18,6 +18,7 @@ public class Receipt {
     private String customerEmail; // For event invitations
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
     private static final String RECEIPT_DIR = "data/receipts/";
+    private static final ReceiptStore STORE = new ReceiptStore(RECEIPT_DIR);
 
     /**
      * Load receipt from file
@@ -78,8 +79,20 @@ public class Receipt {
         this.customerEmail = customerEmail;
     }
 
+    /**
+     * Rebuild a receipt read back from the ReceiptStore
+     */
+    Receipt(String receiptId, Product product, double amount, Date saleDate, String paymentMethod, String customerEmail) {
+        this.receiptId = receiptId;
+        this.product = product;
+        this.amount = amount;
+        this.saleDate = saleDate;
+        this.paymentMethod = paymentMethod;
+        this.customerEmail = customerEmail;
+    }
+
     private String generateReceiptId() {
-        return "R" + System.currentTimeMillis();
+        return IdGenerator.getDefault().nextId("R");
     }
 
     @Override
@@ -103,12 +116,10 @@ public class Receipt {
     }
 
     /**
-     * Outputs the receipt into the receipts directory
+     * Outputs the receipt into the receipt store
      */
     public void outputReceipt() {
-        List<String> lines = new ArrayList<>();
-        Collections.addAll(lines, this.toString().split("\n"));
-        FileManager.writeLines(RECEIPT_DIR + receiptId + ".txt", lines);
+        STORE.append(this);
     }
 
     /**
@@ -147,13 +158,18 @@ public class Receipt {
     }
 
     /**
-     * Load a receipt from file by receipt ID
+     * Load a receipt by receipt ID, falling back to the older one-file-per-receipt layout
      *
      * @param receiptId   Receipt ID to load
      * @param productRepo Product repository to load product details
      * @return Receipt object if found, null otherwise
      */
     public static Receipt loadByReceiptId(String receiptId, ProductRepository productRepo) {
+        Receipt stored = STORE.find(receiptId, productRepo);
+        if (stored != null) {
+            return stored;
+        }
+
         String filepath = RECEIPT_DIR + receiptId + ".txt";
         java.io.File file = new java.io.File(filepath);
         if (file.exists()) {
@@ -171,12 +187,16 @@ public class Receipt {
     }
 
     public boolean markAsReturned() {
+        if (STORE.contains(receiptId)) {
+            return STORE.markReturned(receiptId);
+        }
+
         String filepath = RECEIPT_DIR + receiptId + ".txt";
-        List<String> lines = FileManager.readLines(filepath);
-        if (lines.isEmpty()) {
+        List<String> lastLines = FileManager.readLastLines(filepath, 1);
+        if (lastLines.isEmpty()) {
             return false;
         }
-        String lastLine = lines.getLast();
+        String lastLine = lastLines.getFirst();
         if (lastLine.contains("RETURNED")) {
             return false; // Already marked
         }
@@ -188,14 +208,14 @@ public class Receipt {
      * @return true if receipt already marked as returned
      */
     public boolean alreadyReturned() {
+        if (STORE.contains(receiptId)) {
+            return STORE.isReturned(receiptId);
+        }
+
         String filepath = RECEIPT_DIR + receiptId + ".txt";
-        List<String> lines = FileManager.readLines(filepath);
-        for (String line : lines) {
-            if (line.contains("RETURNED")) {
-                return true;
-            }
+        try (Stream<String> lines = FileManager.lines(filepath)) {
+            return lines.anyMatch(line -> line.contains("RETURNED"));
         }
-        return false;
     }
 }
 
@@ -0,0 +1,238 @@
+package model;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores receipts as one line each in rolling segment files instead of one file per sale.
+ * A receiptId to (segment, offset) index is built by scanning the segments once,
+ * after which lookups are a single seek. The first byte of every record is the
+ * returned flag, so marking a return overwrites that byte in place.
+ *
+ * Record layout: flag|receiptId|saleMillis|productId|amount|paymentMethod|customerEmail
+ */
+public class ReceiptStore {
+
+    private static final long SEGMENT_MAX_BYTES = 4L * 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "receipts-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final byte FLAG_SOLD = 'S';
+    private static final byte FLAG_RETURNED = 'R';
+
+    private record Location(int segment, long offset) {}
+
+    private final File dir;
+    private final Map<String, Location> index = new HashMap<>();
+    private boolean indexed = false;
+    private int currentSegment = 1;
+    private long currentSegmentSize = 0;
+
+    public ReceiptStore(String directory) {
+        this.dir = new File(directory);
+    }
+
+    public synchronized void append(Receipt receipt) {
+        ensureIndexed();
+        String line = (char) FLAG_SOLD + "|" + clean(receipt.getReceiptId())
+                + "|" + receipt.getSaleDate().getTime()
+                + "|" + (receipt.getProduct() != null ? receipt.getProduct().getId() : -1)
+                + "|" + receipt.getAmount()
+                + "|" + clean(receipt.getPaymentMethod())
+                + "|" + clean(receipt.getCustomerEmail()) + "\n";
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+
+        if (currentSegmentSize > 0 && currentSegmentSize + bytes.length > SEGMENT_MAX_BYTES) {
+            currentSegment++;
+            currentSegmentSize = 0;
+        }
+
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        try (FileOutputStream out = new FileOutputStream(segmentFile(currentSegment), true)) {
+            out.write(bytes);
+            index.put(receipt.getReceiptId(), new Location(currentSegment, currentSegmentSize));
+            currentSegmentSize += bytes.length;
+        } catch (IOException e) {
+            System.out.println("Error saving receipt: " + receipt.getReceiptId());
+        }
+    }
+
+    public synchronized boolean contains(String receiptId) {
+        ensureIndexed();
+        return index.containsKey(receiptId);
+    }
+
+    /**
+     * @return the stored receipt, or null if the id is unknown
+     */
+    public synchronized Receipt find(String receiptId, ProductRepository productRepo) {
+        ensureIndexed();
+        Location location = index.get(receiptId);
+        if (location == null) return null;
+
+        String line = readRecord(location);
+        if (line == null) return null;
+
+        String[] parts = line.split("\\|", -1);
+        if (parts.length < 7) return null;
+        try {
+            int productId = Integer.parseInt(parts[3]);
+            Product product = productRepo != null && productId != -1 ? productRepo.findById(productId) : null;
+            String email = parts[6].isEmpty() ? null : parts[6];
+            return new Receipt(parts[1], product, Double.parseDouble(parts[4]),
+                    new Date(Long.parseLong(parts[2])), parts[5], email);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public synchronized boolean isReturned(String receiptId) {
+        ensureIndexed();
+        Location location = index.get(receiptId);
+        if (location == null) return false;
+
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile(location.segment()), "r")) {
+            file.seek(location.offset());
+            return file.read() == FLAG_RETURNED;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Flips the record's flag byte to returned.
+     *
+     * @return false if the receipt is unknown or was already returned
+     */
+    public synchronized boolean markReturned(String receiptId) {
+        ensureIndexed();
+        Location location = index.get(receiptId);
+        if (location == null) return false;
+
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile(location.segment()), "rw")) {
+            file.seek(location.offset());
+            if (file.read() == FLAG_RETURNED) {
+                return false; // Already marked
+            }
+            file.seek(location.offset());
+            file.write(FLAG_RETURNED);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error updating receipt: " + receiptId);
+            return false;
+        }
+    }
+
+    private String readRecord(Location location) {
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile(location.segment()), "r")) {
+            file.seek(location.offset());
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            byte[] buffer = new byte[256];
+            int read;
+            while ((read = file.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        line.write(buffer, 0, i);
+                        return line.toString(StandardCharsets.UTF_8);
+                    }
+                }
+                line.write(buffer, 0, read);
+            }
+            return line.toString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the id index by scanning every segment once.
+     * A record left without its newline by a crash mid-append is cut off the
+     * current segment, so the next append starts on a line of its own.
+     */
+    private void ensureIndexed() {
+        if (indexed) return;
+        indexed = true;
+
+        File[] segments = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (segments == null || segments.length == 0) return;
+
+        int[] numbers = Arrays.stream(segments)
+                .mapToInt(f -> segmentNumber(f.getName()))
+                .filter(n -> n > 0)
+                .sorted()
+                .toArray();
+        long complete = 0;
+        for (int number : numbers) {
+            complete = scanSegment(number);
+        }
+        if (numbers.length > 0) {
+            currentSegment = numbers[numbers.length - 1];
+            File segment = segmentFile(currentSegment);
+            currentSegmentSize = segment.length();
+            if (complete < currentSegmentSize) {
+                try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+                    file.setLength(complete);
+                    currentSegmentSize = complete;
+                    System.out.println("Discarded an incomplete receipt record at the end of " + segment.getName());
+                } catch (IOException e) {
+                    System.out.println("Error repairing receipt segment " + currentSegment);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the length of the segment up to the end of its last complete record
+     */
+    private long scanSegment(int number) {
+        long recordStart = 0;
+        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(segmentFile(number)))) {
+            long offset = 0;
+            int field = 0;
+            ByteArrayOutputStream id = new ByteArrayOutputStream(32);
+            int b;
+            while ((b = in.read()) != -1) {
+                offset++;
+                if (b == '\n') {
+                    if (id.size() > 0) {
+                        index.put(id.toString(StandardCharsets.UTF_8), new Location(number, recordStart));
+                    }
+                    id.reset();
+                    field = 0;
+                    recordStart = offset;
+                } else if (b == '|') {
+                    field++;
+                } else if (field == 1) {
+                    id.write(b);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading receipt segment " + number);
+            // Unknown where the records end, so leave the segment as it is
+            return segmentFile(number).length();
+        }
+        return recordStart;
+    }
+
+    private File segmentFile(int number) {
+        return new File(dir, String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private static int segmentNumber(String name) {
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String clean(String value) {
+        if (value == null) return "";
+        return value.replace('|', '/').replace('\n', ' ').replace('\r', ' ');
+    }
+}
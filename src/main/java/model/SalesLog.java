@@ -0,0 +1,266 @@
+package model;
+
+import util.AtomicFileWriter;
+import util.FileManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Sales log partitioned by day.
+ * Each day has a partition file (yyyy-MM-dd.txt) holding the raw sale and return
+ * lines and a summary file (yyyy-MM-dd.summary) holding that day's totals per
+ * product and payment method.
+ *
+ * The summaries are materialized in memory and updated as each sale or return is
+ * recorded; changed days are written back every FLUSH_INTERVAL_SECONDS and at
+ * shutdown. Only the MAX_CACHED_DAYS most recently used days are kept in memory;
+ * a day is evicted only once its changes have been written. Reports read the summaries, so the partitions are only needed for the
+ * detailed listing or to rebuild a summary that is missing or stale.
+ *
+ * Line format: date, productName, price, paymentMethod (returns have a negative price)
+ */
+public final class SalesLog {
+
+    private static final String PARTITION_SUFFIX = ".txt";
+    private static final String SUMMARY_SUFFIX = ".summary";
+    private static final String STAGING_SUFFIX = ".migrating";
+    private static final String UNKNOWN_PAYMENT = "Unknown";
+    private static final String COVERS_PREFIX = "partitionBytes=";
+    private static final long FLUSH_INTERVAL_SECONDS = 5;
+    // Days whose summaries stay in memory; older ones are read back from their .summary files
+    private static final int MAX_CACHED_DAYS = 62;
+
+    private final File dir;
+    // In access order, so the least recently used day is evicted first
+    private final Map<String, SalesSummary> summaries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> dirtyDays = new HashSet<>();
+
+    /**
+     * @param directory     folder holding the partitions
+     * @param legacyLogFile single-file sales log to split into partitions the first time
+     */
+    public SalesLog(String directory, String legacyLogFile) {
+        this.dir = new File(directory);
+        if (!dir.exists()) {
+            migrate(legacyLogFile);
+        }
+
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sales-summary-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+    }
+
+    public synchronized void append(LocalDate date, String productName, double price, String paymentMethod) {
+        record(date.toString(), productName, price, paymentMethod, 1);
+    }
+
+    /**
+     * Records a refund against the day it was given.
+     */
+    public synchronized void recordReturn(LocalDate date, String productName, double refund, String paymentMethod) {
+        record(date.toString(), productName, -refund, paymentMethod, -1);
+    }
+
+    private void record(String day, String productName, double amount, String paymentMethod, int units) {
+        SalesSummary summary = summaryFor(day);
+        FileManager.appendLine(partitionFile(day).getPath(),
+                day + ", " + productName + ", " + amount + ", " + paymentMethod);
+        summary.record(day, productName, paymentMethod, units, amount);
+        dirtyDays.add(day);
+    }
+
+    /**
+     * Writes the summaries of every day changed since the last flush.
+     */
+    public synchronized void flush() {
+        if (dirtyDays.isEmpty()) return;
+        // One batch, so all changed days share a single round of disk syncs
+        AtomicFileWriter.Batch batch = new AtomicFileWriter.Batch();
+        for (String day : dirtyDays) {
+            batch.add(summaryFile(day).getPath(), summaryLines(dir, day, summaries.get(day)));
+        }
+        try {
+            batch.commit();
+            dirtyDays.clear();
+        } catch (IOException e) {
+            System.out.println("Error writing sales summaries: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Totals for every day from..to (inclusive), taken from the materialized summaries.
+     */
+    public synchronized SalesSummary summarize(LocalDate from, LocalDate to) {
+        SalesSummary total = new SalesSummary();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            String day = d.toString();
+            if (summaries.containsKey(day) || partitionFile(day).exists()) {
+                total.mergeSummaryLines(summaryFor(day).toSummaryLines());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Streams the raw sale lines of every day from..to (inclusive), in date order.
+     */
+    public synchronized void forEachSale(LocalDate from, LocalDate to, Consumer<String> action) {
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            File partition = partitionFile(d.toString());
+            if (!partition.exists()) continue;
+
+            try (Stream<String> lines = FileManager.lines(partition.getPath())) {
+                lines.forEach(action);
+            }
+        }
+    }
+
+    private SalesSummary summaryFor(String day) {
+        SalesSummary summary = summaries.computeIfAbsent(day, this::loadSummary);
+        // Unflushed days are skipped, or flush would lose their changes; so is the day asked for
+        Iterator<String> days = summaries.keySet().iterator();
+        while (summaries.size() > MAX_CACHED_DAYS && days.hasNext()) {
+            String cached = days.next();
+            if (!cached.equals(day) && !dirtyDays.contains(cached)) days.remove();
+        }
+        return summary;
+    }
+
+    /**
+     * Loads a day's summary. It is rebuilt from the partition if the summary file is
+     * missing or was written before the last lines of the partition (e.g. after a crash).
+     */
+    private SalesSummary loadSummary(String day) {
+        SalesSummary summary = new SalesSummary();
+        File partition = partitionFile(day);
+        if (summaryFile(day).exists()) {
+            List<String> lines = FileManager.readLines(summaryFile(day).getPath());
+            if (!lines.isEmpty() && lines.get(0).equals(COVERS_PREFIX + partition.length())) {
+                summary.mergeSummaryLines(lines);
+                return summary;
+            }
+        }
+        if (partition.exists()) {
+            try (Stream<String> lines = FileManager.lines(partition.getPath())) {
+                lines.forEach(line -> recordLine(summary, line));
+            }
+            writeSummary(day, summary);
+        }
+        return summary;
+    }
+
+    private void writeSummary(String day, SalesSummary summary) {
+        FileManager.writeLines(summaryFile(day).getPath(), summaryLines(dir, day, summary));
+    }
+
+    private static List<String> summaryLines(File in, String day, SalesSummary summary) {
+        List<String> lines = new ArrayList<>();
+        lines.add(COVERS_PREFIX + partitionFile(in, day).length());
+        lines.addAll(summary.toSummaryLines());
+        return lines;
+    }
+
+    /**
+     * Splits the old single-file log into day partitions and writes their summaries.
+     * The partitions are built in a staging folder that is renamed to dir only once
+     * all of them are written, so a crash part way leaves no dir and the next start
+     * migrates again from scratch, discarding the half-built staging folder.
+     */
+    private void migrate(String legacyLogFile) {
+        if (legacyLogFile == null || !new File(legacyLogFile).exists()) {
+            dir.mkdirs();
+            return;
+        }
+
+        File staging = new File(dir.getPath() + STAGING_SUFFIX);
+        File[] leftovers = staging.listFiles();
+        if (leftovers != null) {
+            for (File f : leftovers) f.delete();
+        }
+        staging.mkdirs();
+
+        Map<String, List<String>> linesByDay = new HashMap<>();
+        Map<String, SalesSummary> summariesByDay = new HashMap<>();
+        try (Stream<String> lines = FileManager.lines(legacyLogFile)) {
+            lines.forEach(line -> {
+                String day = recordLine(null, line);
+                if (day == null) return;
+                linesByDay.computeIfAbsent(day, k -> new ArrayList<>()).add(line);
+                recordLine(summariesByDay.computeIfAbsent(day, k -> new SalesSummary()), line);
+            });
+        }
+        for (Map.Entry<String, List<String>> e : linesByDay.entrySet()) {
+            String day = e.getKey();
+            if (!FileManager.appendLines(partitionFile(staging, day).getPath(), e.getValue())) {
+                throw new IllegalStateException("Could not migrate " + legacyLogFile + " to " + dir);
+            }
+            FileManager.writeLines(summaryFile(staging, day).getPath(), summaryLines(staging, day, summariesByDay.get(day)));
+        }
+
+        try {
+            Files.move(staging.toPath(), dir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not migrate " + legacyLogFile + " to " + dir + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses one sale line and adds it to summary (if not null).
+     *
+     * @return the sale's day, or null if the line is malformed
+     */
+    private static String recordLine(SalesSummary summary, String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 3) return null;
+
+        String day = parts[0].trim();
+        try {
+            LocalDate.parse(day);
+            double price = Double.parseDouble(parts[2].trim());
+            if (summary != null) {
+                String paymentMethod = parts.length > 3 ? parts[3].trim() : UNKNOWN_PAYMENT;
+                summary.record(day, parts[1].trim(), paymentMethod, price < 0 ? -1 : 1, price);
+            }
+            return day;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private File partitionFile(String day) {
+        return partitionFile(dir, day);
+    }
+
+    private File summaryFile(String day) {
+        return summaryFile(dir, day);
+    }
+
+    private static File partitionFile(File in, String day) {
+        return new File(in, day + PARTITION_SUFFIX);
+    }
+
+    private static File summaryFile(File in, String day) {
+        return new File(in, day + SUMMARY_SUFFIX);
+    }
+}
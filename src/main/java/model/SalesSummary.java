@@ -0,0 +1,122 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running sales totals broken down by day, product and payment method.
+ * Days are ISO yyyy-MM-dd strings, so the per-day map is in date order.
+ */
+public class SalesSummary {
+
+    public static class Totals {
+        private int units;
+        private double revenue;
+
+        void add(int units, double revenue) {
+            this.units += units;
+            this.revenue += revenue;
+        }
+
+        public int getUnits() { return units; }
+        public double getRevenue() { return revenue; }
+    }
+
+    private final Totals overall = new Totals();
+    private final TreeMap<String, Totals> byDay = new TreeMap<>();
+    private final TreeMap<String, Totals> byProduct = new TreeMap<>();
+    private final TreeMap<String, Totals> byPaymentMethod = new TreeMap<>();
+
+    /**
+     * @param units   units sold (negative for returns)
+     * @param revenue revenue taken (negative for refunds)
+     */
+    public void record(String day, String productName, String paymentMethod, int units, double revenue) {
+        overall.add(units, revenue);
+        byDay.computeIfAbsent(day, k -> new Totals()).add(units, revenue);
+        byProduct.computeIfAbsent(productName, k -> new Totals()).add(units, revenue);
+        byPaymentMethod.computeIfAbsent(paymentMethod, k -> new Totals()).add(units, revenue);
+    }
+
+    public int getUnits() { return overall.getUnits(); }
+    public double getRevenue() { return overall.getRevenue(); }
+    public Map<String, Totals> getByDay() { return byDay; }
+    public Map<String, Totals> getByProduct() { return byProduct; }
+    public Map<String, Totals> getByPaymentMethod() { return byPaymentMethod; }
+
+    public boolean isEmpty() {
+        return byDay.isEmpty();
+    }
+
+    /**
+     * Serializes the totals as kind,key,units,revenue lines (kind is day, product or payment).
+     */
+    public List<String> toSummaryLines() {
+        List<String> lines = new ArrayList<>();
+        appendSummary(lines, "day", byDay);
+        appendSummary(lines, "product", byProduct);
+        appendSummary(lines, "payment", byPaymentMethod);
+        return lines;
+    }
+
+    /**
+     * Adds totals previously written by toSummaryLines.
+     */
+    public void mergeSummaryLines(List<String> lines) {
+        for (String line : lines) {
+            int first = line.indexOf(',');
+            int last = line.lastIndexOf(',');
+            int middle = line.lastIndexOf(',', last - 1);
+            if (first < 0 || middle <= first) continue;
+
+            String kind = line.substring(0, first);
+            String key = line.substring(first + 1, middle);
+            int units;
+            double revenue;
+            try {
+                units = Integer.parseInt(line.substring(middle + 1, last));
+                revenue = Double.parseDouble(line.substring(last + 1));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+
+            switch (kind) {
+                case "day" -> {
+                    overall.add(units, revenue);
+                    byDay.computeIfAbsent(key, k -> new Totals()).add(units, revenue);
+                }
+                case "product" -> byProduct.computeIfAbsent(key, k -> new Totals()).add(units, revenue);
+                case "payment" -> byPaymentMethod.computeIfAbsent(key, k -> new Totals()).add(units, revenue);
+                default -> { }
+            }
+        }
+    }
+
+    private static void appendSummary(List<String> lines, String kind, Map<String, Totals> totals) {
+        for (Map.Entry<String, Totals> e : totals.entrySet()) {
+            lines.add(kind + "," + e.getKey() + "," + e.getValue().getUnits() + "," + e.getValue().getRevenue());
+        }
+    }
+
+    /**
+     * Formats the breakdown sections shared by every sales report.
+     */
+    public List<String> toReportLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("Total Sales: " + overall.getUnits());
+        lines.add(String.format("Total Revenue: $%.2f", overall.getRevenue()));
+        appendSection(lines, "By Day:", byDay);
+        appendSection(lines, "By Product:", byProduct);
+        appendSection(lines, "By Payment Method:", byPaymentMethod);
+        return lines;
+    }
+
+    private static void appendSection(List<String> lines, String title, Map<String, Totals> totals) {
+        lines.add("\n" + title);
+        for (Map.Entry<String, Totals> e : totals.entrySet()) {
+            lines.add(String.format("  %-25s %5d  $%.2f", e.getKey(), e.getValue().getUnits(), e.getValue().getRevenue()));
+        }
+    }
+}
@@ -1,73 +1,127 @@
 package model;
 
+import util.AtomicFileWriter;
+
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Vendors and vendor contracts backed by vendors.txt and contracts.txt.
+ * Both are held in id indexes in file order. Contract ids are also grouped by
+ * vendor, and each vendor's approved contract (the first approved one in file
+ * order) is kept up to date by addContract and updateContract, so purchase order
+ * checks need no scan. Callers change a contract's status in place and then pass
+ * it to updateContract, which re-files it.
+ */
 public class VendorContractRepository {
     private final String vendorsFilePath;
     private final String contractsFilePath;
-    private final List<Vendor> vendors;
-    private final List<VendorContract> contracts;
+    private final Map<Integer, Vendor> vendorsById = new LinkedHashMap<>();
+    private final Map<Integer, VendorContract> contractsById = new LinkedHashMap<>();
+    private final Map<Integer, Set<Integer>> contractIdsByVendor = new HashMap<>();
+    private final Map<Integer, VendorContract> approvedContractByVendor = new HashMap<>();
+    // Vendor each contract is filed under, in case a contract is re-pointed
+    private final Map<Integer, Integer> indexedVendor = new HashMap<>();
 
     public VendorContractRepository(String vendorsFilePath, String contractsFilePath) {
         this.vendorsFilePath = vendorsFilePath;
         this.contractsFilePath = contractsFilePath;
-        this.vendors = new ArrayList<>();
-        this.contracts = new ArrayList<>();
         loadFromFiles();
     }
 
     public List<Vendor> getAllVendors() {
-        return new ArrayList<>(vendors);
+        return new ArrayList<>(vendorsById.values());
     }
 
     public List<VendorContract> getAllContracts() {
-        return new ArrayList<>(contracts);
+        return new ArrayList<>(contractsById.values());
     }
 
     public Vendor findVendorById(int id) {
-        return vendors.stream()
-                .filter(v -> v.getVendorID() == id)
-                .findFirst()
-                .orElse(null);
+        return vendorsById.get(id);
     }
 
     public VendorContract findContractById(int id) {
-        return contracts.stream()
-                .filter(c -> c.getContractID() == id)
-                .findFirst()
-                .orElse(null);
+        return contractsById.get(id);
+    }
+
+    /**
+     * @return the vendor's first approved contract, or null if it has none
+     */
+    public VendorContract findApprovedContract(int vendorId) {
+        return approvedContractByVendor.get(vendorId);
     }
 
     public void addVendor(Vendor vendor) {
-        vendors.add(vendor);
+        vendorsById.putIfAbsent(vendor.getVendorID(), vendor);
         saveVendors();
     }
 
     public void updateVendor(Vendor vendor) {
-        Vendor existing = findVendorById(vendor.getVendorID());
-        if (existing != null) {
-            vendors.remove(existing);
-            vendors.add(vendor);
+        if (vendorsById.remove(vendor.getVendorID()) != null) {
+            // Updated vendors move to the end of the file, as before
+            vendorsById.put(vendor.getVendorID(), vendor);
             saveVendors();
         }
     }
 
     public void addContract(VendorContract contract) {
-        contracts.add(contract);
+        if (contractsById.containsKey(contract.getContractID())) return;
+        indexContract(contract);
         saveContracts();
     }
 
     public void updateContract(VendorContract contract) {
-        VendorContract existing = findContractById(contract.getContractID());
-        if (existing != null) {
-            contracts.remove(existing);
-            contracts.add(contract);
+        if (contractsById.remove(contract.getContractID()) != null) {
+            // Updated contracts move to the end of the file, as before
+            indexContract(contract);
             saveContracts();
         }
     }
 
+    private void indexContract(VendorContract contract) {
+        int contractId = contract.getContractID();
+        int vendorId = contract.getVendor().getVendorID();
+        contractsById.put(contractId, contract);
+
+        Integer previousVendor = indexedVendor.put(contractId, vendorId);
+        if (previousVendor != null) {
+            Set<Integer> ids = contractIdsByVendor.get(previousVendor);
+            if (ids != null) {
+                ids.remove(contractId);
+            }
+            refreshApprovedContract(previousVendor);
+        }
+        contractIdsByVendor.computeIfAbsent(vendorId, k -> new LinkedHashSet<>()).add(contractId);
+        refreshApprovedContract(vendorId);
+    }
+
+    private void refreshApprovedContract(int vendorId) {
+        VendorContract approved = null;
+        Set<Integer> ids = contractIdsByVendor.get(vendorId);
+        if (ids != null) {
+            // Buckets are re-filed like the id index, so they are in file order too
+            for (int contractId : ids) {
+                VendorContract contract = contractsById.get(contractId);
+                if ("Approved".equals(contract.getStatus())) {
+                    approved = contract;
+                    break;
+                }
+            }
+        }
+        if (approved == null) {
+            approvedContractByVendor.remove(vendorId);
+        } else {
+            approvedContractByVendor.put(vendorId, approved);
+        }
+    }
+
     private void loadFromFiles() {
         loadVendors();
         loadContracts();
@@ -85,10 +139,10 @@ public class VendorContractRepository {
                 if (line.trim().isEmpty()) continue;
                 Vendor vendor = Vendor.fromCSV(line);
                 if (vendor != null) {
-                    vendors.add(vendor);
+                    vendorsById.putIfAbsent(vendor.getVendorID(), vendor);
                 }
             }
-            System.out.println("Loaded " + vendors.size() + " vendors from file.");
+            System.out.println("Loaded " + vendorsById.size() + " vendors from file.");
         } catch (IOException e) {
             System.err.println("Error loading vendors: " + e.getMessage());
         }
@@ -100,16 +154,17 @@ public class VendorContractRepository {
             return;
         }
 
+        List<Vendor> vendors = new ArrayList<>(vendorsById.values());
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 if (line.trim().isEmpty()) continue;
                 VendorContract contract = VendorContract.fromCSV(line, vendors);
-                if (contract != null) {
-                    contracts.add(contract);
+                if (contract != null && !contractsById.containsKey(contract.getContractID())) {
+                    indexContract(contract);
                 }
             }
-            System.out.println("Loaded " + contracts.size() + " contracts from file.");
+            System.out.println("Loaded " + contractsById.size() + " contracts from file.");
         } catch (IOException e) {
             System.err.println("Error loading contracts: " + e.getMessage());
         }
@@ -117,11 +172,12 @@ public class VendorContractRepository {
 
     private void saveVendors() {
         ensureParentDirectory(vendorsFilePath);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(vendorsFilePath))) {
-            for (Vendor vendor : vendors) {
-                writer.write(vendor.toCSV());
-                writer.newLine();
-            }
+        List<String> lines = new ArrayList<>();
+        for (Vendor vendor : vendorsById.values()) {
+            lines.add(vendor.toCSV());
+        }
+        try {
+            AtomicFileWriter.write(vendorsFilePath, lines);
         } catch (IOException e) {
             System.err.println("Error saving vendors: " + e.getMessage());
         }
@@ -129,11 +185,12 @@ public class VendorContractRepository {
 
     private void saveContracts() {
         ensureParentDirectory(contractsFilePath);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(contractsFilePath))) {
-            for (VendorContract contract : contracts) {
-                writer.write(contract.toCSV());
-                writer.newLine();
-            }
+        List<String> lines = new ArrayList<>();
+        for (VendorContract contract : contractsById.values()) {
+            lines.add(contract.toCSV());
+        }
+        try {
+            AtomicFileWriter.write(contractsFilePath, lines);
         } catch (IOException e) {
             System.err.println("Error saving contracts: " + e.getMessage());
         }
@@ -93,7 +93,7 @@ public class EventCoordinatorService {
         }
 
         // Deduct budget from finance
-        financeService.addExpense(event.getCost() * event.getCapacity() * 0.3); // Estimated 30% upfront cost
+        financeService.addEventCost(event.getCost() * event.getCapacity() * 0.3, event.getName()); // Estimated 30% upfront cost
 
         event.setStatus(Event.EventStatus.APPROVED);
         eventRepository.update(event);
@@ -1,37 +1,118 @@
 package service;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import model.LedgerEntry;
 import model.Product;
 import util.FileManager;
 
-public class FinanceService {
+/**
+ * Company finances kept as an append-only ledger.
+ * Every sale, return, expense and event cost becomes a LedgerEntry; the running
+ * totals are kept in memory and the entries are written to the ledger file in
+ * groups, either once maxBatchSize entries are waiting or every maxDelayMillis.
+ * finance.txt is only a summary of the totals, rewritten once per group.
+ */
+public final class FinanceService {
+
+    private static final int DEFAULT_BATCH_SIZE = 32;
+    private static final long DEFAULT_DELAY_MILLIS = 1000;
 
     private String filename;
+    private final String ledgerFile;
+    private final int maxBatchSize;
     private double balance;
     private double totalRevenue;
     private double totalExpenses;
 
+    private final List<LedgerEntry> pending = new ArrayList<>();
+    private final ScheduledExecutorService flusher;
+
     public FinanceService(String filename) {
+        this(filename, DEFAULT_BATCH_SIZE, DEFAULT_DELAY_MILLIS);
+    }
+
+    /**
+     * @param maxBatchSize   number of waiting entries that forces a flush
+     * @param maxDelayMillis longest time an entry waits before it is written
+     */
+    public FinanceService(String filename, int maxBatchSize, long maxDelayMillis) {
         this.filename = filename;
+        this.ledgerFile = filename.replaceFirst("\\.txt$", "") + "_ledger.txt";
+        this.maxBatchSize = Math.max(1, maxBatchSize);
         this.balance = 0;
         this.totalRevenue = 0;
         this.totalExpenses = 0;
         loadBalance();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "finance-ledger-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, maxDelayMillis, maxDelayMillis, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
     }
 
     private void loadBalance() {
+        if (!new File(ledgerFile).exists()) {
+            seedLedger();
+            return;
+        }
+
+        // A crash mid-append leaves a partial last row, which the next append would run into
+        FileManager.truncateTornLine(ledgerFile);
+        for (LedgerEntry entry : readLedger()) {
+            apply(entry);
+        }
+    }
+
+    /**
+     * Carries the totals from an existing finance.txt into a new ledger so
+     * folding the ledger reproduces them.
+     */
+    private void seedLedger() {
+        double oldBalance = 0, oldRevenue = 0, oldExpenses = 0;
         List<String> lines = util.FileManager.readLines(filename);
 
         for (String line : lines) {
             if (line.startsWith("balance")) {
-                balance = Double.parseDouble(line.split("=")[1]);
+                oldBalance = Double.parseDouble(line.split("=")[1]);
             } else if (line.startsWith("revenue")) {
-                totalRevenue = Double.parseDouble(line.split("=")[1]);
+                oldRevenue = Double.parseDouble(line.split("=")[1]);
             } else if (line.startsWith("expenses")) {
-                totalExpenses = Double.parseDouble(line.split("=")[1]);
+                oldExpenses = Double.parseDouble(line.split("=")[1]);
             }
         }
+
+        List<LedgerEntry> carried = new ArrayList<>();
+        carried.add(new LedgerEntry(LedgerEntry.Type.OPENING, oldBalance - oldRevenue + oldExpenses, "Carried forward"));
+        carried.add(new LedgerEntry(LedgerEntry.Type.REVENUE, oldRevenue, "Carried forward"));
+        carried.add(new LedgerEntry(LedgerEntry.Type.EXPENSE, oldExpenses, "Carried forward"));
+
+        List<String> rows = new ArrayList<>();
+        for (LedgerEntry entry : carried) {
+            apply(entry);
+            rows.add(entry.toCSV());
+        }
+        // The totals already include them, so like flush, keep them waiting until they are written
+        if (!FileManager.appendLines(ledgerFile, rows)) {
+            pending.addAll(carried);
+        }
+    }
+
+    private List<LedgerEntry> readLedger() {
+        try (Stream<String> lines = FileManager.lines(ledgerFile)) {
+            return lines.map(LedgerEntry::fromCSV)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
     }
 
     private void saveBalance() {
@@ -42,16 +123,50 @@ public class FinanceService {
         FileManager.writeLines(filename, lines);
     }
 
+    private void apply(LedgerEntry entry) {
+        balance += entry.balanceEffect();
+        totalRevenue += entry.revenueEffect();
+        totalExpenses += entry.expenseEffect();
+    }
+
+    private synchronized void record(LedgerEntry entry) {
+        apply(entry);
+        pending.add(entry);
+        if (pending.size() >= maxBatchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes all waiting entries to the ledger in one append and refreshes the summary file.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) return;
+
+        List<String> rows = new ArrayList<>(pending.size());
+        for (LedgerEntry entry : pending) {
+            rows.add(entry.toCSV());
+        }
+        if (FileManager.appendLines(ledgerFile, rows)) {
+            pending.clear();
+            saveBalance();
+        }
+    }
+
     public void addRevenue(double amount) {
-        balance += amount;
-        totalRevenue += amount;
-        saveBalance();
+        record(new LedgerEntry(LedgerEntry.Type.REVENUE, amount, ""));
+    }
+
+    public void addSale(Product product) {
+        record(new LedgerEntry(LedgerEntry.Type.SALE, product.getPrice(), product.getName()));
     }
 
     public void addExpense(double amount) {
-        balance -= amount;
-        totalExpenses += amount;
-        saveBalance();
+        record(new LedgerEntry(LedgerEntry.Type.EXPENSE, amount, ""));
+    }
+
+    public void addEventCost(double amount, String eventName) {
+        record(new LedgerEntry(LedgerEntry.Type.EVENT_COST, amount, eventName));
     }
 
     /**
@@ -61,20 +176,28 @@ public class FinanceService {
      * @param amount  amount of products being returned
      */
     public void processReturn(Product product, int amount) {
-        balance -= product.getPrice() * amount;
-        totalRevenue -= product.getPrice() * amount;
-        saveBalance();
+        record(new LedgerEntry(LedgerEntry.Type.RETURN, product.getPrice() * amount,
+                product.getName() + " x" + amount));
+    }
+
+    /**
+     * @return every ledger entry in the order it was recorded, including unflushed ones
+     */
+    public synchronized List<LedgerEntry> getHistory() {
+        List<LedgerEntry> history = readLedger();
+        history.addAll(pending);
+        return history;
     }
 
-    public double getBalance() {
+    public synchronized double getBalance() {
         return balance;
     }
 
-    public double getTotalRevenue() {
+    public synchronized double getTotalRevenue() {
         return totalRevenue;
     }
 
-    public double getTotalExpenses() {
+    public synchronized double getTotalExpenses() {
         return totalExpenses;
     }
 }
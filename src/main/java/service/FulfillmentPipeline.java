@@ -0,0 +1,153 @@
+package service;
+
+import model.OnlineOrder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Moves a batch of orders through READY_TO_FULFILL -> PICKING -> SHIPPED on a
+ * fixed pool of workers.
+ *
+ * A worker claims an order by switching it from READY_TO_FULFILL to PICKING with a
+ * compare-and-set, so each order is processed by exactly one worker, and an order
+ * a terminal has already taken is skipped. After processing, the order is shipped
+ * with a second compare-and-set from PICKING; if processing fails the claim is
+ * released back to READY_TO_FULFILL. Each order is attempted once per run.
+ */
+public class FulfillmentPipeline {
+
+    /**
+     * Picks and packs one claimed order.
+     */
+    public interface OrderProcessor {
+        /**
+         * @return the tracking number the order ships with
+         */
+        String process(OnlineOrder order) throws Exception;
+    }
+
+    public static class Result {
+        private final int shipped;
+        private final int failed;
+        private final int skipped;
+        private final long elapsedNanos;
+        private final long[] latencyNanos;
+
+        Result(int shipped, int failed, int skipped, long elapsedNanos, long[] latencyNanos) {
+            this.shipped = shipped;
+            this.failed = failed;
+            this.skipped = skipped;
+            this.elapsedNanos = elapsedNanos;
+            this.latencyNanos = latencyNanos;
+            Arrays.sort(this.latencyNanos);
+        }
+
+        public int getShipped() { return shipped; }
+        public int getFailed() { return failed; }
+        // Orders another worker or terminal had already claimed
+        public int getSkipped() { return skipped; }
+
+        public double getElapsedMillis() {
+            return elapsedNanos / 1_000_000.0;
+        }
+
+        public double getOrdersPerSecond() {
+            return elapsedNanos == 0 ? 0 : shipped * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /**
+         * @param percentile e.g. 99 for p99
+         * @return claim-to-shipped latency at that percentile, over processed orders
+         */
+        public double getLatencyMillis(double percentile) {
+            if (latencyNanos.length == 0) return 0;
+            int index = (int) Math.ceil(percentile / 100.0 * latencyNanos.length) - 1;
+            return latencyNanos[Math.max(0, Math.min(index, latencyNanos.length - 1))] / 1_000_000.0;
+        }
+    }
+
+    private final OnlineOrderService orderService;
+    private final int workers;
+
+    public FulfillmentPipeline(OnlineOrderService orderService, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be at least 1");
+        }
+        this.orderService = orderService;
+        this.workers = workers;
+    }
+
+    /**
+     * Runs every order that is READY_TO_FULFILL when the run starts through the pipeline
+     * and waits for all of them to finish.
+     */
+    public Result run(OrderProcessor processor) {
+        List<OnlineOrder> batch = orderService.getOrdersByStatus(OnlineOrder.READY_TO_FULFILL);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger shipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicLongArray latencies = new AtomicLongArray(batch.size());
+        AtomicInteger processed = new AtomicInteger();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "fulfillment-worker-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        long start = System.nanoTime();
+        for (int w = 0; w < workers; w++) {
+            pool.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < batch.size()) {
+                    OnlineOrder order = batch.get(i);
+                    if (!orderService.transition(order, OnlineOrder.READY_TO_FULFILL, OnlineOrder.PICKING)) {
+                        skipped.incrementAndGet();
+                        continue;
+                    }
+
+                    long claimed = System.nanoTime();
+                    try {
+                        String tracking = processor.process(order);
+                        if (orderService.transition(order, OnlineOrder.PICKING, OnlineOrder.SHIPPED, tracking)) {
+                            shipped.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        System.out.println("Could not fulfill order " + order.getId() + ": " + e.getMessage());
+                        orderService.transition(order, OnlineOrder.PICKING, OnlineOrder.READY_TO_FULFILL);
+                        failed.incrementAndGet();
+                    }
+                    // Concurrent savers share one journal append
+                    orderService.saveOrders();
+                    latencies.set(processed.getAndIncrement(), System.nanoTime() - claimed);
+                }
+            });
+        }
+
+        pool.shutdown();
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.out.println("Still fulfilling orders...");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long[] latencyNanos = new long[processed.get()];
+        for (int i = 0; i < latencyNanos.length; i++) {
+            latencyNanos[i] = latencies.get(i);
+        }
+        return new Result(shipped.get(), failed.get(), skipped.get(), elapsed, latencyNanos);
+    }
+}
@@ -2,12 +2,18 @@ package service;
 
 import model.OnlineOrder;
 import model.OrderLine;
+import util.AtomicFileWriter;
+import util.CsvScanner;
 import util.FileManager;
 
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 /**
  * Handles the "Fulfill Online Order" use case:
@@ -21,9 +27,28 @@ import java.util.*;
 public class OnlineOrderService {
 
     private static final String ORDERS_FILE = "data/orders.csv";
+    // Status and tracking changes since the last snapshot: timestamp,orderId,status,trackingNumber
+    private static final String ORDERS_JOURNAL = "data/orders_journal.txt";
+    // A journal whose changes are being folded into a new snapshot
+    private static final String SEALED_JOURNAL = ORDERS_JOURNAL + ".compacting";
+    private static final int COMPACT_THRESHOLD = 500;
 
     private final Scanner sc;
-    private final List<OnlineOrder> orders = new ArrayList<>();
+    // Keyed by upper-cased id so lookups stay case-insensitive; iteration keeps file order
+    private final Map<String, OnlineOrder> ordersById = new LinkedHashMap<>();
+    // Orders grouped by upper-cased status; kept in step by updateStatus
+    private final Map<String, Set<OnlineOrder>> ordersByStatus = new LinkedHashMap<>();
+    // Orders changed since the last saveOrders
+    private final Set<OnlineOrder> dirtyOrders = new LinkedHashSet<>();
+    private int journalEntries = 0;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    // Set while the sealed journal is left over from a snapshot write that failed
+    private volatile boolean snapshotFailed;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "orders-compactor");
+        t.setDaemon(true);
+        return t;
+    });
 
     public OnlineOrderService(Scanner sc) {
         this.sc = sc;
@@ -36,94 +61,207 @@ public class OnlineOrderService {
      * orderId,customerName,shippingAddress,status,trackingNumber,productId,productName,quantity
      */
     private void loadOrdersFromCsv() {
-        List<String> lines = FileManager.readLines(ORDERS_FILE);
-        if (lines == null || lines.size() <= 1) {
-            System.out.println("No orders found in " + ORDERS_FILE);
-            return;
-        }
-
         Map<String, OnlineOrder> orderMap = new LinkedHashMap<>();
 
-        // Skip header (start from i = 1)
-        for (int i = 1; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
-            if (line.isEmpty()) continue;
+        try (CsvScanner scanner = CsvScanner.open(ORDERS_FILE)) {
+            scanner.next(); // Skip header
+            while (scanner.next()) {
+                if (scanner.isBlank()) continue;
 
-            String[] parts = line.split(",", -1); // -1 keeps empty columns
-            if (parts.length < 8) {
-                System.out.println("Skipping malformed order line: " + line);
-                continue;
-            }
-
-            String orderId = parts[0].trim();
-            String customerName = parts[1].trim();
-            String shippingAddress = parts[2].trim();
-            String status = parts[3].trim();
-            String trackingNumber = parts[4].trim();
-            String productId = parts[5].trim();
-            String productName = parts[6].trim();
-            int quantity;
-
-            try {
-                quantity = Integer.parseInt(parts[7].trim());
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid quantity in orders file: " + line);
-                continue;
-            }
+                if (scanner.fieldCount() < 8) {
+                    System.out.println("Skipping malformed order line: " + scanner.line());
+                    continue;
+                }
 
-            // Get or create OnlineOrder
-            OnlineOrder order = orderMap.get(orderId);
-            if (order == null) {
-                order = new OnlineOrder(orderId, customerName, shippingAddress);
-                if (!status.isEmpty()) {
-                    order.setStatus(status);
+                int quantity;
+                try {
+                    quantity = scanner.getInt(7);
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid quantity in orders file: " + scanner.line());
+                    continue;
                 }
-                if (!trackingNumber.isEmpty()) {
-                    order.setTrackingNumber(trackingNumber);
+
+                // Get or create OnlineOrder; the order's own columns are only read for its first line
+                String orderId = scanner.getString(0);
+                OnlineOrder order = orderMap.get(key(orderId));
+                if (order == null) {
+                    order = new OnlineOrder(orderId, scanner.getString(1), scanner.getString(2));
+                    if (!scanner.isEmpty(3)) {
+                        order.setStatus(scanner.getString(3));
+                    }
+                    if (!scanner.isEmpty(4)) {
+                        order.setTrackingNumber(scanner.getString(4));
+                    }
+                    orderMap.put(key(orderId), order);
                 }
-                orderMap.put(orderId, order);
+
+                // Add line to order
+                OrderLine lineObj = new OrderLine(scanner.getString(5), scanner.getString(6), quantity);
+                order.addLine(lineObj);
             }
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + ORDERS_FILE);
+        }
 
-            // Add line to order
-            OrderLine lineObj = new OrderLine(productId, productName, quantity);
-            order.addLine(lineObj);
+        // Sealed first: its changes are older than everything in the live journal
+        replayJournal(SEALED_JOURNAL, orderMap);
+        int sealedEntries = journalEntries;
+        replayJournal(ORDERS_JOURNAL, orderMap);
+
+        if (orderMap.isEmpty()) {
+            System.out.println("No orders found in " + ORDERS_FILE);
+            return;
         }
 
-        orders.clear();
-        orders.addAll(orderMap.values());
+        ordersById.clear();
+        ordersByStatus.clear();
+        // Fixed bucket order so open orders list ready ones before those being picked
+        bucket(OnlineOrder.READY_TO_FULFILL);
+        bucket(OnlineOrder.PICKING);
+        bucket(OnlineOrder.SHIPPED);
+        ordersById.putAll(orderMap);
+        for (OnlineOrder order : ordersById.values()) {
+            bucket(order.getStatus()).add(order);
+        }
+
+        // A compaction was interrupted; finish it now. Only the live journal is left to count afterwards.
+        if (new File(SEALED_JOURNAL).exists() && writeSnapshot(snapshotRows())) {
+            new File(SEALED_JOURNAL).delete();
+            journalEntries -= sealedEntries;
+        }
     }
 
-    public void showOpenOrders() {
+    /**
+     * Applies journaled status and tracking changes on top of the loaded snapshot.
+     * Each entry holds the order's full status and tracking number, so replaying
+     * entries the snapshot already covers is harmless.
+     */
+    private void replayJournal(String journalFile, Map<String, OnlineOrder> orderMap) {
+        if (!new File(journalFile).exists()) return;
+
+        // A crash mid-append leaves a partial last entry; drop it so the next append starts a fresh line
+        FileManager.truncateTornLine(journalFile);
+
+        try (Stream<String> lines = FileManager.lines(journalFile)) {
+            lines.forEach(line -> {
+                String[] parts = line.split(",", 4);
+                if (parts.length < 4) return;
+                OnlineOrder order = orderMap.get(key(parts[1]));
+                if (order == null) return;
+                order.setStatus(parts[2]);
+                order.setTrackingNumber(parts[3].isEmpty() ? null : parts[3]);
+                journalEntries++;
+            });
+        }
+    }
+
+    /**
+     * Lists every order that has not shipped yet. Shipped orders are never visited.
+     */
+    public synchronized void showOpenOrders() {
         System.out.println("\n=== Online Orders ===");
-        if (orders.isEmpty()) {
+        if (ordersById.isEmpty()) {
             System.out.println("No online orders in the system.");
             return;
         }
 
-        for (OnlineOrder order : orders) {
-            System.out.println(order.getId() + " | "
-                    + order.getCustomerName() + " | "
-                    + order.getStatus());
+        boolean any = false;
+        for (Map.Entry<String, Set<OnlineOrder>> bucket : ordersByStatus.entrySet()) {
+            if (bucket.getKey().equals(OnlineOrder.SHIPPED)) continue;
+            for (OnlineOrder order : bucket.getValue()) {
+                System.out.println(order.getId() + " | "
+                        + order.getCustomerName() + " | "
+                        + order.getStatus());
+                any = true;
+            }
+        }
+        if (!any) {
+            System.out.println("No open orders.");
         }
     }
 
     // expose order lookup to other services
 public OnlineOrder getOrderById(String id) {
-    for (OnlineOrder o : orders) {
-        if (o.getId().equalsIgnoreCase(id)) return o;
-    }
-    return null;
+    return id == null ? null : ordersById.get(key(id));
 }
 
+    /**
+     * @return a snapshot of the orders currently in status (case-insensitive), in the order they reached it
+     */
+    public synchronized List<OnlineOrder> getOrdersByStatus(String status) {
+        Set<OnlineOrder> bucket = ordersByStatus.get(key(status));
+        return bucket == null ? List.of() : List.copyOf(bucket);
+    }
+
+    /**
+     * Changes an order's status and moves it to the matching bucket.
+     * Status changes must go through here or transition rather than OnlineOrder.setStatus.
+     */
+    public synchronized void updateStatus(OnlineOrder order, String status) {
+        String previous = order.getStatus();
+        order.setStatus(status);
+        moved(order, previous, status);
+    }
+
+    public boolean transition(OnlineOrder order, String from, String to) {
+        return transition(order, from, to, null);
+    }
+
+    /**
+     * Moves an order from one status to another only if it is still in from.
+     * The check and the change are a single compare-and-set on the order, so when
+     * two workers or terminals race for the same order exactly one wins.
+     *
+     * @param trackingNumber set on the order with the change, or null to leave it
+     * @return false if the order was no longer in status from
+     */
+    public boolean transition(OnlineOrder order, String from, String to, String trackingNumber) {
+        if (!order.compareAndSetStatus(from, to)) {
+            return false;
+        }
+        synchronized (this) {
+            if (trackingNumber != null) {
+                order.setTrackingNumber(trackingNumber);
+            }
+            moved(order, from, to);
+        }
+        return true;
+    }
+
+    private void moved(OnlineOrder order, String from, String to) {
+        Set<OnlineOrder> previous = ordersByStatus.get(key(from));
+        if (previous != null) {
+            previous.remove(order);
+        }
+        bucket(to).add(order);
+        dirtyOrders.add(order);
+    }
+
 // expose saving so PickListService can persist status changes
-public void saveOrders() {
-    saveOrdersToCsv(); // call your existing private method
+public synchronized void saveOrders() {
+    if (dirtyOrders.isEmpty()) return;
+
+    // One journal entry per changed order instead of rewriting every order
+    String now = LocalDateTime.now().toString();
+    List<String> entries = new ArrayList<>();
+    for (OnlineOrder order : dirtyOrders) {
+        String status = order.getStatus() == null ? "" : order.getStatus();
+        String tracking = order.getTrackingNumber() == null ? "" : order.getTrackingNumber();
+        entries.add(now + "," + order.getId() + "," + status + "," + tracking);
+    }
+    if (!FileManager.appendLines(ORDERS_JOURNAL, entries)) return;
+
+    dirtyOrders.clear();
+    journalEntries += entries.size();
+    if (journalEntries >= COMPACT_THRESHOLD || snapshotFailed) {
+        compactInBackground();
+    }
 }
 
     public void fulfillOnlineOrder() {
         System.out.println("\n=== Fulfill Online Order ===");
 
-        if (orders.isEmpty()) {
+        if (ordersById.isEmpty()) {
             System.out.println("No orders available.");
             return;
         }
@@ -133,13 +271,13 @@ public void saveOrders() {
         System.out.print("Enter order ID to fulfill: ");
         String id = sc.nextLine().trim();
 
-        OnlineOrder order = findOrderById(id);
+        OnlineOrder order = getOrderById(id);
         if (order == null) {
             System.out.println("No order found with ID " + id);
             return;
         }
 
-        if (!"READY_TO_FULFILL".equalsIgnoreCase(order.getStatus())) {
+        if (!OnlineOrder.READY_TO_FULFILL.equalsIgnoreCase(order.getStatus())) {
             System.out.println("Order " + id + " is not in READY_TO_FULFILL state.");
             return;
         }
@@ -168,63 +306,109 @@ public void saveOrders() {
         System.out.print("Enter tracking number: ");
         String tracking = sc.nextLine().trim();
 
-        // 4. Mark as shipped (in memory)
-        order.setTrackingNumber(tracking);
-        order.setStatus("SHIPPED");
+        // 4. Mark as shipped (in memory), unless another terminal took the order meanwhile
+        if (!transition(order, OnlineOrder.READY_TO_FULFILL, OnlineOrder.SHIPPED, tracking)) {
+            System.out.println("Order " + order.getId() + " was taken by another worker (now " + order.getStatus() + ").");
+            return;
+        }
 
-        // 5. Save all orders back to CSV
-        saveOrdersToCsv();
+        // 5. Save the change
+        saveOrders();
 
         System.out.println("\nOrder " + order.getId() + " has been marked as SHIPPED.");
         System.out.println("Carrier: " + carrier);
         System.out.println("Tracking: " + tracking);
     }
 
-    private OnlineOrder findOrderById(String id) {
-        for (OnlineOrder order : orders) {
-            if (order.getId().equalsIgnoreCase(id)) {
-                return order;
+    private Set<OnlineOrder> bucket(String status) {
+        return ordersByStatus.computeIfAbsent(key(status), k -> new LinkedHashSet<>());
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Seals the journal and writes a fresh orders.csv snapshot on the compactor
+     * thread. New changes go to a new journal meanwhile; the sealed one is removed
+     * once the snapshot is safely in place.
+     *
+     * If a snapshot write fails, the sealed journal stays and the live one cannot
+     * be sealed on top of it. Each later save then writes the snapshot again from
+     * the current orders, which cover both journals, until one succeeds; after
+     * that the live journal is sealed as usual once it reaches the threshold.
+     */
+    private void compactInBackground() {
+        if (!compacting.compareAndSet(false, true)) return;
+
+        File journal = new File(ORDERS_JOURNAL);
+        File sealed = new File(SEALED_JOURNAL);
+        if (!sealed.exists()) {
+            if (!journal.renameTo(sealed)) {
+                compacting.set(false);
+                return;
             }
+            journalEntries = 0;
         }
-        return null;
+
+        // Rows are taken now, on the caller's thread, so the compactor never sees a half-made change
+        List<String> rows = snapshotRows();
+        compactor.execute(() -> {
+            try {
+                if (writeSnapshot(rows)) {
+                    sealed.delete();
+                    snapshotFailed = false;
+                } else {
+                    snapshotFailed = true;
+                }
+            } finally {
+                compacting.set(false);
+            }
+        });
     }
 
     /**
-     * Writes the current in-memory orders back to data/orders.csv,
-     * overwriting the file.
+     * Renders the current in-memory orders as the contents of data/orders.csv.
      *
      * CSV format:
      * orderId,customerName,shippingAddress,status,trackingNumber,productId,productName,quantity
      */
-    private void saveOrdersToCsv() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(ORDERS_FILE))) {
-            // header
-            writer.println("orderId,customerName,shippingAddress,status,trackingNumber,productId,productName,quantity");
-
-            for (OnlineOrder order : orders) {
-                String status = order.getStatus() == null ? "" : order.getStatus();
-                String tracking = order.getTrackingNumber() == null ? "" : order.getTrackingNumber();
-
-                for (OrderLine line : order.getLines()) {
-                    String productId = line.getProductId();
-                    String productName = line.getProductName();
-                    int quantity = line.getQuantity();
-
-                    writer.println(
-                            order.getId() + "," +
-                            escape(order.getCustomerName()) + "," +
-                            escape(order.getShippingAddress()) + "," +
-                            status + "," +
-                            tracking + "," +
-                            productId + "," +
-                            escape(productName) + "," +
-                            quantity
-                    );
-                }
+    private List<String> snapshotRows() {
+        List<String> rows = new ArrayList<>();
+        // header
+        rows.add("orderId,customerName,shippingAddress,status,trackingNumber,productId,productName,quantity");
+
+        for (OnlineOrder order : ordersById.values()) {
+            String status = order.getStatus() == null ? "" : order.getStatus();
+            String tracking = order.getTrackingNumber() == null ? "" : order.getTrackingNumber();
+
+            for (OrderLine line : order.getLines()) {
+                String productId = line.getProductId();
+                String productName = line.getProductName();
+                int quantity = line.getQuantity();
+
+                rows.add(
+                        order.getId() + "," +
+                        escape(order.getCustomerName()) + "," +
+                        escape(order.getShippingAddress()) + "," +
+                        status + "," +
+                        tracking + "," +
+                        productId + "," +
+                        escape(productName) + "," +
+                        quantity
+                );
             }
+        }
+        return rows;
+    }
 
+    private boolean writeSnapshot(List<String> rows) {
+        try {
+            AtomicFileWriter.write(ORDERS_FILE, rows);
+            return true;
         } catch (IOException e) {
             System.out.println("Error saving orders to " + ORDERS_FILE + ": " + e.getMessage());
+            return false;
         }
     }
 
@@ -5,18 +5,25 @@ import model.OrderLine;
 import model.PickItem;
 import model.PickList;
 import util.FileManager;
+import util.IdGenerator;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public class PickListService {
 
     private static final String PICKLIST_FILE = "data/picklists.csv";
 
     private final OnlineOrderService orderService;
+    private final PickPathPlanner planner = new PickPathPlanner();
 
     public PickListService(OnlineOrderService orderService) {
         this.orderService = orderService;
@@ -25,29 +32,27 @@ public class PickListService {
     }
 
     private void ensureHeader() {
-        List<String> lines = FileManager.readLines(PICKLIST_FILE);
-        if (lines == null || lines.isEmpty()) {
+        if (FileManager.isEmpty(PICKLIST_FILE)) {
             FileManager.appendLine(PICKLIST_FILE, "pickListId,orderId,createdAt,productId,productName,quantity,location");
         }
     }
 private Map<Integer, String> locationMap = new HashMap<>();
 
 private void loadLocations() {
-    List<String> lines = FileManager.readLines("data/locations.csv");
-    if (lines == null || lines.size() <= 1) return;
+    try (Stream<String> lines = FileManager.lines("data/locations.csv")) {
+        lines.skip(1).forEach(raw -> {
+            String line = raw.trim();
+            if (line.isEmpty()) return;
 
-    for (int i = 1; i < lines.size(); i++) {
-        String line = lines.get(i).trim();
-        if (line.isEmpty()) continue;
+            String[] parts = line.split(",", -1);
+            if (parts.length < 2) return;
 
-        String[] parts = line.split(",", -1);
-        if (parts.length < 2) continue;
-
-        try {
-            int productId = Integer.parseInt(parts[0].trim());
-            String location = parts[1].trim();
-            locationMap.put(productId, location);
-        } catch (NumberFormatException ignored) {}
+            try {
+                int productId = Integer.parseInt(parts[0].trim());
+                String location = parts[1].trim();
+                locationMap.put(productId, location);
+            } catch (NumberFormatException ignored) {}
+        });
     }
 }
 
@@ -57,38 +62,35 @@ private void loadLocations() {
             System.out.println("No order found with ID " + orderId);
             return;
         }
-        if (!"READY_TO_FULFILL".equalsIgnoreCase(order.getStatus())) {
+        if (!OnlineOrder.READY_TO_FULFILL.equalsIgnoreCase(order.getStatus())) {
             System.out.println("Order " + orderId + " is not READY_TO_FULFILL (current status: " + order.getStatus() + ")");
             return;
         }
 
+        // Claim the order first so two terminals cannot both pick it
+        if (!orderService.transition(order, OnlineOrder.READY_TO_FULFILL, OnlineOrder.PICKING)) {
+            System.out.println("Order " + orderId + " was taken by another worker (now " + order.getStatus() + ")");
+            return;
+        }
+
         String pickListId = nextPickListId();
         String date = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
         PickList pickList = new PickList(pickListId, order.getId(), date);
 
        //sets location
+        List<PickItem> items = new ArrayList<>();
         for (OrderLine l : order.getLines()) {
-            int pid = Integer.parseInt(l.getProductId());
-            String loc = locationMap.getOrDefault(pid, "");
-            pickList.addItem(new PickItem(l.getProductId(), l.getProductName(), l.getQuantity(), loc));
-                    }
-
-        // Persist each pick item as one row
-        for (PickItem it : pickList.getItems()) {
-            String row = String.join(",",
-                    pickList.getId(),
-                    pickList.getOrderId(),
-                    pickList.getCreatedAt(),
-                    it.getProductId(),
-                    escape(it.getProductName()),
-                    String.valueOf(it.getQuantity()),
-                    it.getLocation()
-            );
-            FileManager.appendLine(PICKLIST_FILE, row);
+            items.add(new PickItem(l.getProductId(), l.getProductName(), l.getQuantity(), locationFor(l.getProductId())));
         }
+        // Items in walking order rather than order-line order
+        planner.route(items).forEach(pickList::addItem);
 
-        // Update order status and save back to CSV
-        order.setStatus("PICKING");
+        if (!savePickLists(List.of(pickList))) {
+            releaseClaims(List.of(order));
+            return;
+        }
+
+        // Save the status change
         orderService.saveOrders();
 
         System.out.println("Pick list " + pickListId + " successfully created.\n");
@@ -96,10 +98,137 @@ printPickList(pickList);
 
     }
 
+    public void generateWavePickList(Collection<String> orderIds) {
+        generateWavePickList(orderIds, 1);
+    }
+
+    /**
+     * Builds the pick lists for a wave of orders. Lines for the same product and
+     * location are merged, so each bin is visited once per wave, and the items are
+     * put in walking order. With more than one picker the route is cut into zones
+     * of whole aisles, one pick list each. Orders are claimed (moved to PICKING)
+     * before the lists are built; all lists are written in one append and the
+     * status changes saved together.
+     *
+     * @param orderIds orders to include; null or empty means every READY_TO_FULFILL order
+     * @param pickers  number of pickers to split the wave between
+     */
+    public void generateWavePickList(Collection<String> orderIds, int pickers) {
+        List<OnlineOrder> candidates = new ArrayList<>();
+        if (orderIds == null || orderIds.isEmpty()) {
+            candidates.addAll(orderService.getOrdersByStatus(OnlineOrder.READY_TO_FULFILL));
+        } else {
+            for (String orderId : new LinkedHashSet<>(orderIds)) {
+                OnlineOrder order = orderService.getOrderById(orderId);
+                if (order == null) {
+                    System.out.println("Skipping " + orderId + ": no such order.");
+                } else {
+                    candidates.add(order);
+                }
+            }
+        }
+
+        // Claim every order up front; orders another worker already took are left out
+        List<OnlineOrder> wave = new ArrayList<>();
+        for (OnlineOrder order : candidates) {
+            if (orderService.transition(order, OnlineOrder.READY_TO_FULFILL, OnlineOrder.PICKING)) {
+                wave.add(order);
+            } else if (orderIds != null && !orderIds.isEmpty()) {
+                System.out.println("Skipping " + order.getId() + ": not READY_TO_FULFILL (current status: " + order.getStatus() + ")");
+            }
+        }
+        if (wave.isEmpty()) {
+            System.out.println("No orders ready for a wave.");
+            return;
+        }
+
+        List<String> waveOrderIds = new ArrayList<>();
+        Map<String, PickItem> consolidated = new LinkedHashMap<>();
+        for (OnlineOrder order : wave) {
+            waveOrderIds.add(order.getId());
+            for (OrderLine l : order.getLines()) {
+                String location = locationFor(l.getProductId());
+                consolidated.merge(l.getProductId() + "|" + location,
+                        new PickItem(l.getProductId(), l.getProductName(), l.getQuantity(), location),
+                        (a, b) -> new PickItem(a.getProductId(), a.getProductName(), a.getQuantity() + b.getQuantity(), a.getLocation()));
+            }
+        }
+
+        String date = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
+        List<PickItem> route = planner.route(new ArrayList<>(consolidated.values()));
+        List<PickList> pickLists = new ArrayList<>();
+        for (List<PickItem> zone : planner.splitIntoZones(route, pickers)) {
+            PickList pickList = new PickList(nextPickListId(), waveOrderIds, date);
+            zone.forEach(pickList::addItem);
+            pickLists.add(pickList);
+        }
+
+        if (!savePickLists(pickLists)) {
+            releaseClaims(wave);
+            return;
+        }
+        orderService.saveOrders();
+
+        System.out.println("Wave of " + wave.size() + " orders split into " + pickLists.size() + " pick list(s).\n");
+        for (int i = 0; i < pickLists.size(); i++) {
+            if (pickLists.size() > 1) {
+                System.out.println("Zone " + (i + 1) + " of " + pickLists.size());
+            }
+            printPickList(pickLists.get(i));
+        }
+    }
+
+    /**
+     * Persists each pick item as one row, all lists in a single append.
+     *
+     * @return false if the pick lists could not be written
+     */
+    private boolean savePickLists(List<PickList> pickLists) {
+        List<String> rows = new ArrayList<>();
+        for (PickList pickList : pickLists) {
+            for (PickItem it : pickList.getItems()) {
+                rows.add(String.join(",",
+                        pickList.getId(),
+                        pickList.getOrderId(),
+                        pickList.getCreatedAt(),
+                        it.getProductId(),
+                        escape(it.getProductName()),
+                        String.valueOf(it.getQuantity()),
+                        it.getLocation()
+                ));
+            }
+        }
+        return FileManager.appendLines(PICKLIST_FILE, rows);
+    }
+
+    /**
+     * Puts orders claimed for a pick list that could not be saved back to
+     * READY_TO_FULFILL, so they are picked again later instead of sitting in PICKING.
+     */
+    private void releaseClaims(List<OnlineOrder> orders) {
+        System.out.println("Error: could not save the pick list to " + PICKLIST_FILE + ". "
+                + orders.size() + " order(s) returned to READY_TO_FULFILL.");
+        for (OnlineOrder order : orders) {
+            orderService.transition(order, OnlineOrder.PICKING, OnlineOrder.READY_TO_FULFILL);
+        }
+    }
+
+    private String locationFor(String productId) {
+        try {
+            return locationMap.getOrDefault(Integer.parseInt(productId.trim()), "");
+        } catch (NumberFormatException e) {
+            return "";
+        }
+    }
+
     private void printPickList(PickList pickList) {
         System.out.println("\n================ PICK LIST ================");
         System.out.println("Pick List ID : " + pickList.getId());
-        System.out.println("Order ID     : " + pickList.getOrderId());
+        if (pickList.getOrderIds().size() > 1) {
+            System.out.println("Orders       : " + pickList.getOrderIds().size() + " (" + String.join(", ", pickList.getOrderIds()) + ")");
+        } else {
+            System.out.println("Order ID     : " + pickList.getOrderId());
+        }
         System.out.println("Created On   : " + pickList.getCreatedAt());
         System.out.println("-------------------------------------------");
         System.out.printf("%-10s %-25s %-10s %-15s%n", "Prod ID", "Product Name", "Qty", "Location");
@@ -119,9 +248,7 @@ printPickList(pickList);
     }
     
     private String nextPickListId() {
-        List<String> lines = FileManager.readLines(PICKLIST_FILE);
-        int n = (lines == null ? 0 : Math.max(0, lines.size() - 1)); // minus header
-        return String.format("PL-%04d", n + 1);
+        return IdGenerator.getDefault().nextId("PL-");
     }
 
     private String escape(String v) {
@@ -0,0 +1,151 @@
+package service;
+
+import model.BinLocation;
+import model.PickItem;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Orders pick items into a walking route.
+ * Aisles are visited in ascending order and walked in alternating directions
+ * (serpentine): up the first aisle, down the next, and so on, so a picker never
+ * walks an aisle twice. Items whose location has no aisle go at the end.
+ *
+ * Distances use a simple grid: aisles are AISLE_SPACING bays apart, each aisle
+ * can be left from its front (bay 0) or its back, and the route starts and ends
+ * at the front of aisle 0.
+ */
+public class PickPathPlanner {
+
+    public static final double AISLE_SPACING = 3.0;
+
+    /**
+     * @return items sorted into serpentine route order
+     */
+    public List<PickItem> route(List<PickItem> items) {
+        Map<String, BinLocation> locations = parseAll(items);
+
+        TreeMap<Integer, List<PickItem>> byAisle = new TreeMap<>();
+        List<PickItem> unplaced = new ArrayList<>();
+        for (PickItem item : items) {
+            BinLocation location = locations.get(item.getLocation());
+            if (location.hasAisle()) {
+                byAisle.computeIfAbsent(location.getAisle(), k -> new ArrayList<>()).add(item);
+            } else {
+                unplaced.add(item);
+            }
+        }
+
+        Comparator<PickItem> upTheAisle = Comparator
+                .comparingInt((PickItem item) -> locations.get(item.getLocation()).getBay())
+                .thenComparingInt(item -> locations.get(item.getLocation()).getBin());
+        Comparator<PickItem> downTheAisle = Comparator
+                .comparingInt((PickItem item) -> -locations.get(item.getLocation()).getBay())
+                .thenComparingInt(item -> locations.get(item.getLocation()).getBin());
+
+        List<PickItem> route = new ArrayList<>(items.size());
+        boolean up = true;
+        for (List<PickItem> aisle : byAisle.values()) {
+            aisle.sort(up ? upTheAisle : downTheAisle);
+            route.addAll(aisle);
+            up = !up;
+        }
+        unplaced.sort(Comparator.comparing(PickItem::getLocation));
+        route.addAll(unplaced);
+        return route;
+    }
+
+    /**
+     * Splits a route into at most pickers zones of whole aisles, keeping each zone
+     * a contiguous stretch of the route and the number of picks per zone close to even.
+     */
+    public List<List<PickItem>> splitIntoZones(List<PickItem> route, int pickers) {
+        List<List<PickItem>> zones = new ArrayList<>();
+        if (route.isEmpty()) return zones;
+        if (pickers <= 1) {
+            zones.add(new ArrayList<>(route));
+            return zones;
+        }
+
+        // Runs of consecutive items in the same aisle
+        Map<String, BinLocation> locations = parseAll(route);
+        List<List<PickItem>> aisles = new ArrayList<>();
+        int currentAisle = 0;
+        for (PickItem item : route) {
+            int aisle = locations.get(item.getLocation()).getAisle();
+            if (aisles.isEmpty() || aisle != currentAisle) {
+                aisles.add(new ArrayList<>());
+                currentAisle = aisle;
+            }
+            aisles.getLast().add(item);
+        }
+
+        int remainingItems = route.size();
+        int remainingZones = Math.min(pickers, aisles.size());
+        List<PickItem> zone = new ArrayList<>();
+        for (int i = 0; i < aisles.size(); i++) {
+            List<PickItem> aisle = aisles.get(i);
+            int target = (remainingItems + remainingZones - 1) / remainingZones;
+            int aislesLeft = aisles.size() - i;
+            boolean full = !zone.isEmpty() && zone.size() + aisle.size() > target;
+            if (remainingZones > 1 && (full || aislesLeft < remainingZones)) {
+                if (!zone.isEmpty()) {
+                    zones.add(zone);
+                    remainingItems -= zone.size();
+                    remainingZones--;
+                    zone = new ArrayList<>();
+                }
+            }
+            zone.addAll(aisle);
+        }
+        zones.add(zone);
+        return zones;
+    }
+
+    /**
+     * Walking distance of a route, in bay lengths, from the depot and back.
+     * Items without an aisle are not placed on the grid and add nothing.
+     */
+    public double routeDistance(List<PickItem> route) {
+        Map<String, BinLocation> locations = parseAll(route);
+        int depth = 1;
+        for (BinLocation location : locations.values()) {
+            if (location.hasAisle()) depth = Math.max(depth, location.getBay() + 1);
+        }
+
+        double distance = 0;
+        int aisle = 0;
+        int bay = 0;
+        for (PickItem item : route) {
+            BinLocation location = locations.get(item.getLocation());
+            if (!location.hasAisle()) continue;
+            distance += walk(aisle, bay, location.getAisle(), location.getBay(), depth);
+            aisle = location.getAisle();
+            bay = location.getBay();
+        }
+        return distance + walk(aisle, bay, 0, 0, depth);
+    }
+
+    private static double walk(int fromAisle, int fromBay, int toAisle, int toBay, int depth) {
+        if (fromAisle == toAisle) {
+            return Math.abs(fromBay - toBay);
+        }
+        // Leave by the nearer of the aisle's two ends, cross, and walk into the next aisle
+        int viaFront = fromBay + toBay;
+        int viaBack = (depth - fromBay) + (depth - toBay);
+        return Math.min(viaFront, viaBack) + Math.abs(fromAisle - toAisle) * AISLE_SPACING;
+    }
+
+    private static Map<String, BinLocation> parseAll(List<PickItem> items) {
+        Map<String, BinLocation> locations = new HashMap<>();
+        for (PickItem item : items) {
+            locations.computeIfAbsent(item.getLocation(), BinLocation::parse);
+        }
+        return locations;
+    }
+}
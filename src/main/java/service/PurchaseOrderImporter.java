@@ -0,0 +1,290 @@
+package service;
+
+import model.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+/**
+ * Bulk purchase order import.
+ * Rows are "productId,vendorId,quantity,unitCost,expectedDeliveryDate"; a header
+ * line starting with "productId" is skipped. An empty unitCost uses the vendor's
+ * catalog price and an empty date defaults to 7 days from today.
+ *
+ * Rows are checked with the same rules as PurchaseOrderService.createPurchaseOrder,
+ * in parallel on a fork-join pool. Workers only read a snapshot of the products
+ * (copies, which nothing else changes), eligible vendors and approved contracts taken
+ * when the import starts.
+ * Orders for the valid rows are then created in row order and saved with one append;
+ * invalid rows are reported and nothing is created for them.
+ */
+public class PurchaseOrderImporter {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    // Rows a single task checks before splitting stops paying off
+    private static final int ROWS_PER_TASK = 256;
+
+    /**
+     * Outcome of one input row. Exactly one of purchaseOrder and error is set.
+     */
+    public record RowResult(int lineNumber, PurchaseOrder purchaseOrder, String error) {
+        public boolean isValid() {
+            return error == null;
+        }
+    }
+
+    public static class Result {
+        private final List<RowResult> rows;
+        private final List<PurchaseOrder> created;
+        private final long elapsedNanos;
+
+        Result(List<RowResult> rows, List<PurchaseOrder> created, long elapsedNanos) {
+            this.rows = rows;
+            this.created = created;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // One entry per non-blank data row, in input order
+        public List<RowResult> getRows() { return rows; }
+        public List<PurchaseOrder> getCreated() { return created; }
+        public int getFailed() { return rows.size() - created.size(); }
+
+        public double getElapsedMillis() {
+            return elapsedNanos / 1_000_000.0;
+        }
+    }
+
+    // A row that passed validation, waiting to become a purchase order
+    private record Accepted(Product product, Vendor vendor, VendorContract contract,
+                            int quantity, double unitCost, String expectedDeliveryDate) {
+    }
+
+    private record Snapshot(Map<Integer, Product> products,
+                            Map<Integer, Set<String>> productVendors,
+                            Map<Integer, Vendor> vendors,
+                            Set<Integer> eligibleVendors,
+                            Map<Integer, VendorContract> approvedContracts,
+                            Map<Integer, Map<Integer, Double>> catalogPrices,
+                            String defaultDeliveryDate) {
+    }
+
+    private final PurchaseOrderRepository purchaseOrderRepo;
+    private final ProductRepository productRepo;
+    private final VendorContractRepository vendorContractRepo;
+    private final int workers;
+
+    public PurchaseOrderImporter(PurchaseOrderService poService, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be at least 1");
+        }
+        this.purchaseOrderRepo = poService.getPurchaseOrderRepo();
+        this.productRepo = poService.getProductRepo();
+        this.vendorContractRepo = poService.getVendorContractRepo();
+        this.workers = workers;
+    }
+
+    /**
+     * @throws IOException if the file cannot be read; nothing is imported then
+     */
+    public Result importCsv(String filename) throws IOException {
+        try (Stream<String> lines = Files.lines(Path.of(filename), StandardCharsets.UTF_8)) {
+            return importRows(lines);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public Result importRows(Stream<String> lines) {
+        List<String> rows = lines.toList();
+        long start = System.nanoTime();
+        Snapshot snapshot = takeSnapshot();
+
+        Object[] checked = new Object[rows.size()];
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            pool.invoke(new Validate(rows, snapshot, checked, 0, rows.size()));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Ids come from PurchaseOrder's counter, so orders are created on this thread, in row order
+        PurchaseOrder[] orders = new PurchaseOrder[checked.length];
+        List<PurchaseOrder> created = new ArrayList<>();
+        for (int i = 0; i < checked.length; i++) {
+            if (checked[i] instanceof Accepted row) {
+                orders[i] = new PurchaseOrder(row.product(), row.vendor(), row.contract(),
+                        row.quantity(), row.unitCost(), row.expectedDeliveryDate());
+                created.add(orders[i]);
+            }
+        }
+        // One batch: if it cannot be saved, no row was imported
+        boolean saved = purchaseOrderRepo.addPurchaseOrders(created);
+
+        List<RowResult> results = new ArrayList<>();
+        for (int i = 0; i < checked.length; i++) {
+            if (orders[i] != null) {
+                results.add(saved ? new RowResult(i + 1, orders[i], null)
+                        : new RowResult(i + 1, null, "Error: Could not save purchase orders."));
+            } else if (checked[i] instanceof String error) {
+                results.add(new RowResult(i + 1, null, error));
+            }
+        }
+        return new Result(results, saved ? created : List.of(), System.nanoTime() - start);
+    }
+
+    private Snapshot takeSnapshot() {
+        Map<Integer, Product> products = new HashMap<>();
+        Map<Integer, Set<String>> productVendors = new HashMap<>();
+        for (Product product : productRepo.getAll()) {
+            if (products.putIfAbsent(product.getId(), product) == null) {
+                productVendors.put(product.getId(), Set.copyOf(product.getApprovedVendorIDs()));
+            }
+        }
+
+        Map<Integer, Vendor> vendors = new HashMap<>();
+        Set<Integer> eligible = new HashSet<>();
+        Map<Integer, VendorContract> contracts = new HashMap<>();
+        Map<Integer, Map<Integer, Double>> prices = new HashMap<>();
+        for (Vendor vendor : vendorContractRepo.getAllVendors()) {
+            int vendorId = vendor.getVendorID();
+            vendors.put(vendorId, vendor);
+            if (vendor.isApproved() && !vendor.isBlocked()) {
+                eligible.add(vendorId);
+            }
+            VendorContract contract = vendorContractRepo.findApprovedContract(vendorId);
+            if (contract != null) {
+                contracts.put(vendorId, contract);
+                prices.put(vendorId, Map.copyOf(contract.getCatalogPrices()));
+            }
+        }
+
+        // Vendor lists, approval flags and catalog prices are copied, so later edits cannot race the workers
+        return new Snapshot(Map.copyOf(products), Map.copyOf(productVendors), Map.copyOf(vendors), Set.copyOf(eligible),
+                Map.copyOf(contracts), Map.copyOf(prices),
+                LocalDate.now().plusDays(7).format(DATE_FORMAT));
+    }
+
+    /**
+     * Checks rows [from, to), splitting the range until it is small enough.
+     * Each slot of checked gets an Accepted, an error String, or stays null for a skipped line.
+     */
+    @SuppressWarnings("serial")
+    private static class Validate extends RecursiveAction {
+        private final List<String> rows;
+        private final Snapshot snapshot;
+        private final Object[] checked;
+        private final int from;
+        private final int to;
+
+        Validate(List<String> rows, Snapshot snapshot, Object[] checked, int from, int to) {
+            this.rows = rows;
+            this.snapshot = snapshot;
+            this.checked = checked;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Validate(rows, snapshot, checked, from, mid),
+                        new Validate(rows, snapshot, checked, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                String row = rows.get(i);
+                if (row.isBlank() || (i == 0 && row.trim().startsWith("productId"))) continue;
+                checked[i] = check(row, snapshot);
+            }
+        }
+    }
+
+    /**
+     * @return an Accepted row, or the error message for it
+     */
+    private static Object check(String row, Snapshot snapshot) {
+        String[] parts = row.split(",", -1);
+        if (parts.length < 3 || parts.length > 5) {
+            return "Error: Expected productId,vendorId,quantity,unitCost,expectedDeliveryDate.";
+        }
+
+        int productId, vendorId, quantity;
+        try {
+            productId = Integer.parseInt(parts[0].trim());
+            vendorId = Integer.parseInt(parts[1].trim());
+            quantity = Integer.parseInt(parts[2].trim());
+        } catch (NumberFormatException e) {
+            return "Error: Product ID, vendor ID and quantity must be whole numbers.";
+        }
+
+        Product product = snapshot.products().get(productId);
+        if (product == null) {
+            return "Error: Product not found.";
+        }
+        Vendor vendor = snapshot.vendors().get(vendorId);
+        if (vendor == null) {
+            return "Error: Vendor not found.";
+        }
+        if (!snapshot.eligibleVendors().contains(vendorId)) {
+            return "Error: Vendor is not approved or is blocked.";
+        }
+        if (!snapshot.productVendors().get(productId).contains(String.valueOf(vendorId))) {
+            return "Error: Vendor is not approved for this product.";
+        }
+        VendorContract contract = snapshot.approvedContracts().get(vendorId);
+        if (contract == null) {
+            return "Error: No approved vendor contract exists for this vendor.";
+        }
+        if (quantity <= 0) {
+            return "Error: Order quantity must be greater than zero.";
+        }
+
+        String costText = parts.length > 3 ? parts[3].trim() : "";
+        double unitCost;
+        if (costText.isEmpty()) {
+            Double catalogPrice = snapshot.catalogPrices().get(vendorId).get(productId);
+            if (catalogPrice == null) {
+                return "Error: No unit cost given and the vendor has no catalog price for this product.";
+            }
+            unitCost = catalogPrice;
+        } else {
+            try {
+                unitCost = Double.parseDouble(costText);
+            } catch (NumberFormatException e) {
+                return "Error: Unit cost must be a number.";
+            }
+        }
+        if (!(unitCost > 0) || Double.isInfinite(unitCost)) {
+            return "Error: Unit cost must be greater than zero.";
+        }
+
+        String date = parts.length > 4 ? parts[4].trim() : "";
+        if (date.isEmpty()) {
+            date = snapshot.defaultDeliveryDate();
+        } else {
+            try {
+                LocalDate.parse(date, DATE_FORMAT);
+            } catch (DateTimeParseException e) {
+                return "Error: Expected delivery date must be YYYY-MM-DD.";
+            }
+        }
+
+        return new Accepted(product, vendor, contract, quantity, unitCost, date);
+    }
+}
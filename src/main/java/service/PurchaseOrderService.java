@@ -5,7 +5,9 @@ import model.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class PurchaseOrderService {
@@ -59,7 +61,7 @@ public class PurchaseOrderService {
 
         for (Product product : lowStockProducts) {
             int currentStock = inventory.getStock(product.getId());
-            int recommended = calculateRecommendedOrderQuantity(product.getId());
+            int recommended = recommendedQuantity(product, currentStock);
             System.out.println(String.format("%-5d %-25s %-12d %-12d %-20d",
                     product.getId(),
                     product.getName(),
@@ -77,13 +79,75 @@ public class PurchaseOrderService {
         Product product = productRepo.findById(productId);
         if (product == null) return 0;
 
-        int currentStock = inventory.getStock(productId);
-        int threshold = product.getLowStockThreshold();
-        int recommended = (threshold * 2) - currentStock;
+        return recommendedQuantity(product, inventory.getStock(productId));
+    }
 
+    private static int recommendedQuantity(Product product, int currentStock) {
+        int recommended = (product.getLowStockThreshold() * 2) - currentStock;
         return Math.max(recommended, 1); // At least order 1 unit
     }
 
+    /**
+     * Creates a purchase order for every low-stock product that has no order
+     * still open, from the approved vendor whose approved contract lists the
+     * lowest catalog price for it. Products are read once, vendors and contracts
+     * come from the repository's indexes, and all orders are saved with one append.
+     * Products with no priced, approved vendor are skipped. Any order not yet
+     * Received or Completed (Pending, Pending Delivery, In Transit, ...) counts as open.
+     *
+     * @return the orders created
+     * @throws IllegalStateException if the orders could not be saved; none are kept then
+     */
+    public List<PurchaseOrder> replenishLowStock(String expectedDeliveryDate) {
+        Set<Integer> alreadyOrdered = new HashSet<>();
+        for (PurchaseOrder po : purchaseOrderRepo.getAllPurchaseOrders()) {
+            if (!"Received".equalsIgnoreCase(po.getStatus()) && !"Completed".equalsIgnoreCase(po.getStatus())) {
+                alreadyOrdered.add(po.getProductId());
+            }
+        }
+
+        List<PurchaseOrder> created = new ArrayList<>();
+        for (Product product : productRepo.getAll()) {
+            int currentStock = inventory.getStock(product.getId());
+            if (currentStock > product.getLowStockThreshold() || alreadyOrdered.contains(product.getId())) {
+                continue;
+            }
+
+            Vendor bestVendor = null;
+            VendorContract bestContract = null;
+            double bestPrice = Double.MAX_VALUE;
+            for (String vendorIdStr : product.getApprovedVendorIDs()) {
+                int vendorId;
+                try {
+                    vendorId = Integer.parseInt(vendorIdStr.trim());
+                } catch (NumberFormatException e) {
+                    continue; // Skip invalid vendor IDs
+                }
+                Vendor vendor = vendorContractRepo.findVendorById(vendorId);
+                VendorContract contract = vendorContractRepo.findApprovedContract(vendorId);
+                if (vendor == null || !vendor.isApproved() || vendor.isBlocked() || contract == null) {
+                    continue;
+                }
+                Double price = contract.getCatalogPrice(product.getId());
+                if (price != null && price > 0 && price < bestPrice) {
+                    bestVendor = vendor;
+                    bestContract = contract;
+                    bestPrice = price;
+                }
+            }
+
+            if (bestContract != null) {
+                created.add(new PurchaseOrder(product, bestVendor, bestContract,
+                        recommendedQuantity(product, currentStock), bestPrice, expectedDeliveryDate));
+            }
+        }
+
+        if (!purchaseOrderRepo.addPurchaseOrders(created)) {
+            throw new IllegalStateException("Could not save purchase orders; none were created.");
+        }
+        return created;
+    }
+
     /**
      * Get all approved vendors for a specific product
      */
@@ -115,12 +179,7 @@ public class PurchaseOrderService {
      * Get approved contract for a vendor (if exists)
      */
     public VendorContract getApprovedContract(int vendorId) {
-        List<VendorContract> contracts = vendorContractRepo.getAllContracts();
-        return contracts.stream()
-                .filter(c -> c.getVendor().getVendorID() == vendorId)
-                .filter(c -> "Approved".equals(c.getStatus()))
-                .findFirst()
-                .orElse(null);
+        return vendorContractRepo.findApprovedContract(vendorId);
     }
 
     /**
@@ -57,10 +57,7 @@ public class ReceivingService {
             }
 
             // Create new unique batch ID
-            int newBatchId = batches.keySet().stream()
-                    .mapToInt(Integer::intValue)
-                    .max()
-                    .orElse(0) + 1;
+            int newBatchId = FileManager.getNextId(BATCHES_FILE);
 
             // Create new items list
             List<Item> items = new java.util.ArrayList<>();
@@ -1,6 +1,7 @@
 package service;
 
-import util.LogManager;
+import model.SalesLog;
+import model.SalesSummary;
 import java.util.List;
 import util.FileManager;
 
@@ -9,56 +10,57 @@ import java.util.ArrayList;
 
 public class ReportService {
 
-    private final LogManager LogManager;
+    private final SalesLog salesLog;
 
-    public ReportService(LogManager LogManager) {
-        this.LogManager = LogManager;
+    public ReportService(SalesLog salesLog) {
+        this.salesLog = salesLog;
     }
 
     public void generateSalesReport(LocalDate date) {
-        List<String> logLines = LogManager.readAllLines();
+        generateSalesReport(date, date);
+    }
+
+    public void generateWeeklySalesReport(LocalDate weekStart) {
+        generateSalesReport(weekStart, weekStart.plusDays(6));
+    }
 
-        if (logLines == null | logLines.isEmpty()){
-            System.out.println("No sales data available for the report.");
+    /**
+     * Builds a report for every sale between from and to (inclusive).
+     * Totals come from the materialized per-day summaries. Only a single-day
+     * report lists the individual sales, read from that day's partition.
+     */
+    public void generateSalesReport(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            System.out.println("End date must not be before start date.");
             return;
         }
-        System.out.println("\n--- SALES REPORT FOR " + date + " ---");
 
-        List<String> dailySales = new ArrayList<>();
-        double totalRevenue = 0.0;
+        SalesSummary summary = salesLog.summarize(from, to);
+        List<String> detailedSales = new ArrayList<>();
+        if (from.equals(to)) {
+            salesLog.forEachSale(from, to, detailedSales::add);
+        }
 
-        for (String line : logLines) {
-            String[] parts = line.split(",");
-            if (parts.length != 3) continue;
-            LocalDate saleDate = LocalDate.parse(parts[0].trim());
-            if (saleDate.equals(date)) {
-                dailySales.add(line);
-                totalRevenue += Double.parseDouble(parts[2].trim());
-            }
+        String period = from.equals(to) ? from.toString() : from + " to " + to;
+        System.out.println("\n--- SALES REPORT FOR " + period + " ---");
 
-            List<String> report = new ArrayList<>();
-            report.add("Daily Sales Report for " + date);
-            report.add("----------------------------");
-            report.add("Total Sales: " + dailySales.size());
-            report.add(String.format("Total Revenue: $%.2f", totalRevenue));
+        List<String> report = new ArrayList<>();
+        report.add("Sales Report for " + period);
+        report.add("----------------------------");
+        report.addAll(summary.toReportLines());
+        if (from.equals(to)) {
             report.add("\nDetailed Sales:");
-            if (dailySales.isEmpty()){
+            if (detailedSales.isEmpty()){
                 report.add("No sales recorded on this date.");
             }
             else {
-                report.addAll(dailySales);
+                report.addAll(detailedSales);
             }
-            System.out.println(String.join("\n", report));
-            String fileName = "data/SalesReports/Sales_report_" + date + ".txt";
-            FileManager.writeLines(fileName, report);
-
-            
         }
-        System.out.println("Sales report generated");
+        System.out.println(String.join("\n", report));
 
-        
-        
+        String suffix = from.equals(to) ? from.toString() : from + "_to_" + to;
+        FileManager.writeLines("data/SalesReports/Sales_report_" + suffix + ".txt", report);
+        System.out.println("Sales report generated");
     }
-
-    
 }
@@ -3,6 +3,7 @@ package service;
 import model.*;
 import util.FileManager;
 
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Scanner;
@@ -11,10 +12,12 @@ public class ReturnService {
     private final Scanner scan;
     private final FinanceService finance;
     private final ProductRepository productRepo;
+    private final SalesLog salesLog;
 
-    public ReturnService(Scanner scan, FinanceService finance) {
+    public ReturnService(Scanner scan, FinanceService finance, SalesLog salesLog) {
         this.scan = scan;
         this.finance = finance;
+        this.salesLog = salesLog;
         this.productRepo = new ProductRepository("data/products.txt");
     }
 
@@ -71,7 +74,7 @@ public class ReturnService {
         String hasReceiptInput = scan.nextLine();
 
         if (hasReceiptInput.equalsIgnoreCase("y")) {
-            System.out.print("Enter receipt ID (format: R<timestamp>): ");
+            System.out.print("Enter receipt ID (format: R<number>): ");
             String receiptId = scan.nextLine().trim();
 
             // Load the receipt from file
@@ -111,6 +114,7 @@ public class ReturnService {
         }
 
         finance.processReturn(product, 1);
+        salesLog.recordReturn(LocalDate.now(), product.getName(), refundAmount, receipt.getPaymentMethod());
         System.out.println("Refunded $" + refundAmount + " to method: " + receipt.getPaymentMethod());
         receipt.markAsReturned();
 
@@ -1,7 +1,6 @@
 package service;
 
 import model.*;
-import util.FileManager;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -10,16 +9,19 @@ public class SaleService {
     private final Scanner scan;
     private final Inventory inventory;
     private final FinanceService finance;
+    private final SalesLog salesLog;
 
-    public SaleService(Scanner scan, Inventory inventory, FinanceService finance) {
+    public SaleService(Scanner scan, Inventory inventory, FinanceService finance, SalesLog salesLog) {
         this.scan = scan;
         this.inventory = inventory;
         this.finance = finance;
+        this.salesLog = salesLog;
     }
 
     public void completeSale(Product product) {
 
-        if (!inventory.hasStock(product.getId())) {
+        // Hold the unit while payment is taken so another register cannot sell it
+        if (!inventory.tryReserve(product.getId(), 1)) {
             System.out.println("Item is out of stock");
             return;
         }
@@ -35,25 +37,24 @@ public class SaleService {
 
         if (!success) {
             System.out.println("Payment failed. Sale cancelled");
+            inventory.release(product.getId(), 1);
 
             return;
 
         }
 
-        inventory.reduceStock(product.getId());
-        finance.addRevenue(product.getPrice());
+        inventory.commit(product.getId(), 1);
+        finance.addSale(product);
 
         Receipt receipt = new Receipt(product, product.getPrice(), paymentMethod);
         receipt.outputReceipt();
         System.out.println(receipt);
 
-        logSale(product);
+        logSale(product, paymentMethod);
     }
 
-    public void logSale(Product product) {
-        String filePath = "data/salesLogs.txt";
-        String entry = LocalDate.now() + ", " + product.getName() + ", " + product.getPrice();
-        FileManager.appendLine(filePath, entry);
+    public void logSale(Product product, String paymentMethod) {
+        salesLog.append(LocalDate.now(), product.getName(), product.getPrice(), paymentMethod);
     }
 
     // Will need to be changed once it can fail. Random chance for now
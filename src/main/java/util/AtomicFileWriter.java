@@ -0,0 +1,132 @@
+package util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Crash-safe replacement of whole files.
+ * Content is written to a temporary file in the same directory, forced to disk,
+ * and then renamed over the target, so a reader (or a restart after a crash)
+ * always sees either the complete old file or the complete new one.
+ *
+ * A Batch replaces several files with one round of syncs: all temporary files
+ * are written and forced first, then renamed, then each directory is synced once.
+ */
+public final class AtomicFileWriter {
+
+    private static final long STALE_TEMP_MILLIS = 60_000;
+
+    private AtomicFileWriter() {
+    }
+
+    public static void write(String filename, List<String> lines) throws IOException {
+        Batch batch = new Batch();
+        batch.add(filename, lines);
+        batch.commit();
+    }
+
+    public static class Batch {
+        private final Map<Path, List<String>> files = new LinkedHashMap<>();
+
+        public Batch add(String filename, List<String> lines) {
+            files.put(Path.of(filename).toAbsolutePath(), new ArrayList<>(lines));
+            return this;
+        }
+
+        public void commit() throws IOException {
+            Map<Path, Path> temps = new LinkedHashMap<>();
+            try {
+                for (Map.Entry<Path, List<String>> e : files.entrySet()) {
+                    temps.put(e.getKey(), writeTemp(e.getKey(), e.getValue()));
+                }
+
+                Set<Path> directories = new LinkedHashSet<>();
+                for (Map.Entry<Path, Path> e : temps.entrySet()) {
+                    moveIntoPlace(e.getValue(), e.getKey());
+                    directories.add(e.getKey().getParent());
+                }
+                temps.clear();
+
+                for (Path dir : directories) {
+                    syncDirectory(dir);
+                }
+            } finally {
+                for (Path temp : temps.values()) {
+                    Files.deleteIfExists(temp);
+                }
+                files.clear();
+            }
+        }
+    }
+
+    private static Path writeTemp(Path target, List<String> lines) throws IOException {
+        Path dir = target.getParent();
+        Files.createDirectories(dir);
+        removeStaleTemps(dir, target.getFileName().toString());
+        Path temp = Files.createTempFile(dir, target.getFileName() + ".", ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write(System.lineSeparator());
+            }
+            writer.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    /**
+     * Deletes temporary files left behind by a writer that crashed before its rename.
+     * Only old ones are removed, so a write in progress elsewhere is not disturbed.
+     */
+    private static void removeStaleTemps(Path dir, String name) {
+        long cutoff = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+        try (DirectoryStream<Path> temps = Files.newDirectoryStream(dir, name + ".*.tmp")) {
+            for (Path temp : temps) {
+                if (Files.getLastModifiedTime(temp).toMillis() < cutoff) {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Makes the rename itself durable. Not every platform allows opening a
+     * directory, in which case the rename is left to the OS.
+     */
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Forward-only scanner over a CSV file.
+ * The file is read into memory with one channel read and closed straight away;
+ * it is deliberately not memory-mapped, because a live mapping stops the file
+ * from being replaced on some platforms, and these files are rewritten by
+ * AtomicFileWriter soon after loading.
+ * Each call to next() moves to the following line and records where its fields
+ * start and end in the bytes; nothing is copied or decoded until a field
+ * is asked for. getInt and (in the common case) getDouble parse the bytes
+ * directly, so only the fields read with getString allocate.
+ *
+ * Fields are split on every comma and have surrounding spaces trimmed.
+ * Text is decoded as UTF-8.
+ */
+public class CsvScanner implements AutoCloseable {
+
+    // Powers of ten and mantissas up to these sizes are exact in a double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final byte[] data;
+    private final int limit;
+
+    private int position = 0;
+    private int lineStart = 0;
+    private int lineEnd = 0;
+    private int lineNumber = 0;
+    private int fieldCount = 0;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+
+    private CsvScanner(byte[] data, int limit) {
+        this.data = data;
+        this.limit = limit;
+        skipByteOrderMark();
+    }
+
+    public static CsvScanner open(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException("File too large to load: " + size + " bytes");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            // Stops early if the file shrank since size() was read
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            return new CsvScanner(buffer.array(), buffer.position());
+        }
+    }
+
+    /**
+     * Moves to the next line.
+     *
+     * @return false once the end of the file is reached
+     */
+    public boolean next() {
+        if (position >= limit) return false;
+
+        lineStart = position;
+        fieldCount = 0;
+        int fieldStart = position;
+        int i = position;
+        while (i < limit) {
+            byte b = data[i];
+            if (b == '\n') break;
+            if (b == ',') {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+            i++;
+        }
+        position = i + 1;
+        lineEnd = (i > lineStart && data[i - 1] == '\r') ? i - 1 : i;
+        addField(fieldStart, Math.max(fieldStart, lineEnd));
+        lineNumber++;
+        return true;
+    }
+
+    /**
+     * @return 1-based number of the current line
+     */
+    public int lineNumber() {
+        return lineNumber;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return true if the current line is empty or only whitespace
+     */
+    public boolean isBlank() {
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (!isSpace(data[i])) return false;
+        }
+        return true;
+    }
+
+    public boolean isEmpty(int field) {
+        checkField(field);
+        return starts[field] == ends[field];
+    }
+
+    /**
+     * Compares a field to text without materializing the field.
+     */
+    public boolean fieldEquals(int field, String text) {
+        checkField(field);
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) return getString(field).equals(text);
+        }
+        int length = ends[field] - starts[field];
+        if (length != text.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (data[starts[field] + i] != (byte) text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    public String getString(int field) {
+        checkField(field);
+        return decode(starts[field], ends[field]);
+    }
+
+    /**
+     * @return the text from the start of field to the end of the line, commas included
+     */
+    public String getRest(int field) {
+        checkField(field);
+        return decode(starts[field], trimEnd(starts[field], lineEnd));
+    }
+
+    /**
+     * @return the whole current line
+     */
+    public String line() {
+        return decode(lineStart, lineEnd);
+    }
+
+    public int getInt(int field) {
+        checkField(field);
+        int i = starts[field];
+        int end = ends[field];
+        if (i == end) throw new NumberFormatException("Empty field " + field + " on line " + lineNumber);
+
+        boolean negative = false;
+        byte first = data[i];
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (i == end) throw invalidNumber(field);
+        }
+
+        // Accumulate negatively so Integer.MIN_VALUE parses without overflow
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) throw invalidNumber(field);
+            if (result < (Integer.MIN_VALUE + digit) / 10) throw invalidNumber(field);
+            result = result * 10 - digit;
+        }
+        if (!negative && result == Integer.MIN_VALUE) throw invalidNumber(field);
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses plain decimals such as "85.00" or "-3.5" directly from the bytes.
+     * Anything else (exponents, very long mantissas, NaN) goes through Double.parseDouble.
+     */
+    public double getDouble(int field) {
+        checkField(field);
+        int i = starts[field];
+        int end = ends[field];
+        if (i == end) throw new NumberFormatException("Empty field " + field + " on line " + lineNumber);
+
+        boolean negative = false;
+        byte first = data[i];
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        for (; i < end; i++) {
+            byte b = data[i];
+            if (b == '.' && !seenPoint) {
+                seenPoint = true;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || mantissa >= MAX_EXACT_MANTISSA / 10) {
+                return Double.parseDouble(getString(field));
+            }
+            mantissa = mantissa * 10 + digit;
+            seenDigit = true;
+            if (seenPoint) fractionDigits++;
+        }
+        if (!seenDigit || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(getString(field));
+        }
+
+        // Both operands are exact, so the division is correctly rounded
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * The file is already closed once open returns; kept so callers can use try-with-resources.
+     */
+    @Override
+    public void close() throws IOException {
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        while (start < end && isSpace(data[start])) start++;
+        starts[fieldCount] = start;
+        ends[fieldCount] = trimEnd(start, end);
+        fieldCount++;
+    }
+
+    private int trimEnd(int start, int end) {
+        while (end > start && isSpace(data[end - 1])) end--;
+        return end;
+    }
+
+    private String decode(int start, int end) {
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private void skipByteOrderMark() {
+        if (limit >= 3 && data[0] == (byte) 0xEF && data[1] == (byte) 0xBB && data[2] == (byte) 0xBF) {
+            position = 3;
+        }
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Line " + lineNumber + " has " + fieldCount + " fields, asked for " + field);
+        }
+    }
+
+    private NumberFormatException invalidNumber(int field) {
+        return new NumberFormatException("Invalid number \"" + getString(field) + "\" on line " + lineNumber);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
@@ -4,17 +4,21 @@ import model.Material;
 import model.Sketch;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class FileManager {
 
     public static void saveData(List<Sketch> sketches, List<Material> materials) {
-        try (PrintWriter writer = new PrintWriter("data/data.txt")) {
-            writer.println("[SKETCHES]");
-            for (Sketch s : sketches) writer.println(s.serialize());
-            writer.println("[MATERIALS]");
-            for (Material m : materials) writer.println(m.serialize());
+        List<String> lines = new ArrayList<>();
+        lines.add("[SKETCHES]");
+        for (Sketch s : sketches) lines.add(s.serialize());
+        lines.add("[MATERIALS]");
+        for (Material m : materials) lines.add(m.serialize());
+        try {
+            AtomicFileWriter.write("data/data.txt", lines);
             System.out.println("Data saved successfully.");
         } catch (IOException e) {
             System.out.println("Error saving data: " + e.getMessage());
@@ -65,10 +69,133 @@ public class FileManager {
         return lines;
     }
 
+    /**
+     * Streams the lines of a file without loading the whole file.
+     * The stream keeps the file open, so use it in try-with-resources; stopping
+     * early (findFirst, anyMatch, limit) leaves the rest of the file unread.
+     * A missing or unreadable file gives an empty stream.
+     */
+    public static Stream<String> lines(String filename) {
+        try {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(filename), StandardCharsets.UTF_8));
+            return reader.lines().onClose(() -> {
+                try {
+                    reader.close();
+                } catch (IOException ignored) {
+                }
+            });
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + filename);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * @return true if the file is missing or has no content
+     */
+    public static boolean isEmpty(String filename) {
+        return new File(filename).length() == 0;
+    }
+
+    /**
+     * @return up to the first n lines of the file
+     */
+    public static List<String> readFirstLines(String filename, int n) {
+        try (Stream<String> lines = lines(filename)) {
+            return lines.limit(n).toList();
+        }
+    }
+
+    /**
+     * Reads up to the last n lines by reading the file backwards from its end,
+     * so the cost depends on the size of those lines rather than of the file.
+     */
+    public static List<String> readLastLines(String filename, int n) {
+        File file = new File(filename);
+        if (n <= 0 || !file.exists()) return new ArrayList<>();
+
+        final int blockSize = 8 * 1024;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long end = raf.length();
+            // Ignore the newline that terminates the last line
+            if (end > 0) {
+                raf.seek(end - 1);
+                if (raf.read() == '\n') end--;
+            }
+
+            long start = end;
+            int newlines = 0;
+            byte[] block = new byte[blockSize];
+            while (start > 0 && newlines < n) {
+                int size = (int) Math.min(blockSize, start);
+                raf.seek(start - size);
+                raf.readFully(block, 0, size);
+                int i = size - 1;
+                for (; i >= 0; i--) {
+                    if (block[i] == '\n' && ++newlines == n) break;
+                }
+                start -= size - (i + 1);
+                if (i >= 0) break;
+            }
+
+            byte[] tail = new byte[(int) (end - start)];
+            raf.seek(start);
+            raf.readFully(tail);
+            List<String> lines = new ArrayList<>();
+            for (String line : new String(tail, StandardCharsets.UTF_8).split("\n", -1)) {
+                lines.add(line.endsWith("\r") ? line.substring(0, line.length() - 1) : line);
+            }
+            if (end == 0) lines.clear();
+            return lines;
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + filename);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Cuts a last line that has no newline off the end of the file. A crash in the
+     * middle of an append leaves such a line, and the next append would otherwise
+     * carry on from it, gluing two entries into one. Journals call this before
+     * replaying and appending.
+     *
+     * @return false if the file could not be repaired
+     */
+    public static boolean truncateTornLine(String filename) {
+        File file = new File(filename);
+        if (!file.exists()) return true;
+
+        final int blockSize = 8 * 1024;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long length = raf.length();
+            long complete = length;
+            byte[] block = new byte[blockSize];
+            // Find the last newline; everything after it is the torn line
+            while (complete > 0) {
+                int size = (int) Math.min(blockSize, complete);
+                raf.seek(complete - size);
+                raf.readFully(block, 0, size);
+                int i = size - 1;
+                while (i >= 0 && block[i] != '\n') i--;
+                complete -= size - (i + 1);
+                if (i >= 0) break;
+            }
+            if (complete < length) {
+                raf.setLength(complete);
+                System.out.println("Discarded an incomplete line at the end of " + filename);
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error repairing file: " + filename);
+            return false;
+        }
+    }
+
     /**
      * Protects errors on writing by creating directories
      */
-    private static void ensureParentDirectory(String filename) {
+    static void ensureParentDirectory(String filename) {
         File f = new File(filename);
         File parent = f.getParentFile();
         if (parent != null && !parent.exists()) {
@@ -79,26 +206,25 @@ public class FileManager {
         }
     }
 
+    /**
+     * Replaces the whole file with lines. The file is swapped in atomically,
+     * so a crash mid-write leaves the previous contents intact.
+     */
     public static void writeLines(String filename, List<String> lines) {
         ensureParentDirectory(filename);
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            for (String line : lines) {
-                writer.println(line);
-            }
+        try {
+            AtomicFileWriter.write(filename, lines);
         } catch (IOException e) {
             System.out.println("Error writing file: " + filename);
         }
     }
 
-    public static void updateLine(String filename, String targetLineStart, String newLine) {
-        List<String> lines = readLines(filename);
-        for (int i = 0; i < lines.size(); i++) {
-            if (lines.get(i).startsWith(targetLineStart)) {
-                lines.set(i, newLine);
-                break;
-            }
-        }
-        writeLines(filename, lines);
+    /**
+     * Replaces the record whose first column is exactly key.
+     * Goes through the file's KeyedRecordStore, so the rest of the file is not rewritten.
+     */
+    public static void updateLine(String filename, String key, String newLine) {
+        KeyedRecordStore.forFile(filename).put(key, newLine);
     }
 
     public static boolean appendLine(String filename, String line) {
@@ -112,28 +238,30 @@ public class FileManager {
         return false;
     }
 
+    /**
+     * Appends several lines with a single open and buffered write.
+     */
+    public static boolean appendLines(String filename, List<String> lines) {
+        ensureParentDirectory(filename);
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(filename, true)))) {
+            for (String line : lines) {
+                writer.println(line);
+            }
+            return !writer.checkError();
+        } catch (IOException e) {
+            System.out.println("Error appending to file: " + filename);
+        }
+        return false;
+    }
+
     /**
      * Gets the next available integer ID from a CSV file where the first column contains IDs.
+     * IDs come from the file's SequenceAllocator, so they are never reused.
      *
-     * @param filename CSV file to read
+     * @param filename CSV file the ID is for
      * @return Next available ID
      */
     public static int getNextId(String filename) {
-        List<String> lines = readLines(filename);
-        java.util.Set<Integer> used = new java.util.HashSet<>();
-        for (String line : lines) {
-            String[] parts = line.split(",");
-            if (parts.length > 0) {
-                try {
-                    used.add(Integer.parseInt(parts[0]));
-                } catch (NumberFormatException ignored) {
-                }
-            }
-        }
-        int candidate = 1;
-        while (used.contains(candidate)) {
-            candidate++;
-        }
-        return candidate;
+        return SequenceAllocator.forFile(filename).next();
     }
 }
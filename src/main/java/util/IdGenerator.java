@@ -0,0 +1,67 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out unique, roughly time-ordered 64-bit ids without locking.
+ * Layout: 41 bits of milliseconds since 2025-01-01 UTC, 10 bits of node id
+ * (one per register or warehouse terminal) and 12 bits of per-millisecond sequence.
+ *
+ * The node id comes from the "fashion.nodeId" system property, then the
+ * FASHION_NODE_ID environment variable, and defaults to 0.
+ */
+public final class IdGenerator {
+
+    private static final long EPOCH_MILLIS = 1735689600000L; // 2025-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+
+    private static final IdGenerator DEFAULT = new IdGenerator(configuredNodeId());
+
+    private final long node;
+    // (millis since EPOCH_MILLIS << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong lastState = new AtomicLong();
+
+    public IdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE);
+        }
+        this.node = nodeId;
+    }
+
+    public static IdGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    public long nextId() {
+        long nowState = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long prev;
+        long next;
+        do {
+            prev = lastState.get();
+            // Same millisecond (or the clock stepped back): bump the sequence. If the
+            // sequence overflows it carries into the time bits, which keeps ids unique.
+            next = Math.max(nowState, prev + 1);
+        } while (!lastState.compareAndSet(prev, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    public String nextId(String prefix) {
+        return prefix + nextId();
+    }
+
+    private static int configuredNodeId() {
+        String value = System.getProperty("fashion.nodeId", System.getenv("FASHION_NODE_ID"));
+        if (value == null || value.isBlank()) return 0;
+        try {
+            return (int) Math.min(MAX_NODE, Math.max(0, Integer.parseInt(value.trim())));
+        } catch (NumberFormatException e) {
+            System.out.println("Ignoring invalid node id: " + value);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from int to int.
+ * Keys and values live in plain int arrays (linear probing, power-of-two capacity),
+ * so lookups and updates never box. Not thread-safe.
+ */
+public class IntIntMap {
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    private static final int FREE_KEY = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    // FREE_KEY marks empty slots, so an entry for key 0 is kept on the side
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    public IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == FREE_KEY) return hasFreeKey;
+        return keys[findSlot(key)] != FREE_KEY;
+    }
+
+    public int get(int key, int defaultValue) {
+        if (key == FREE_KEY) return hasFreeKey ? freeKeyValue : defaultValue;
+        int slot = findSlot(key);
+        return keys[slot] != FREE_KEY ? values[slot] : defaultValue;
+    }
+
+    public void put(int key, int value) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) size++;
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] == FREE_KEY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+        if (size > resizeAt) {
+            allocateAndRehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Adds delta to the value stored for key (0 if absent).
+     *
+     * @return the new value
+     */
+    public int add(int key, int delta) {
+        int updated = get(key, 0) + delta;
+        put(key, updated);
+        return updated;
+    }
+
+    public void remove(int key) {
+        if (key == FREE_KEY) {
+            if (hasFreeKey) size--;
+            hasFreeKey = false;
+            return;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] == FREE_KEY) return;
+        size--;
+
+        // Backward-shift deletion keeps every probe chain unbroken without tombstones
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != FREE_KEY) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE_KEY;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasFreeKey) consumer.accept(FREE_KEY, freeKeyValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) consumer.accept(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * @return all keys in ascending order
+     */
+    public int[] sortedKeys() {
+        int[] result = new int[size];
+        int n = 0;
+        if (hasFreeKey) result[n++] = FREE_KEY;
+        for (int k : keys) {
+            if (k != FREE_KEY) result[n++] = k;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int findSlot(int key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void allocateAndRehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,228 @@
+package util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Exact-key record updates for a CSV file whose first column is the key.
+ * An update appends the new version of the line; readers that load the file in
+ * order and keep the last line per key (as the batch loader does) see the update.
+ * The key to (offset, length) index is persisted in "<file>.idx" as
+ * key,offset,length lines, so reopening only scans lines appended by other writers.
+ * When superseded lines outnumber live ones the file is compacted back to one line per key.
+ */
+public class KeyedRecordStore {
+
+    private static final Map<String, KeyedRecordStore> STORES = new ConcurrentHashMap<>();
+    private static final int MIN_DEAD_FOR_COMPACTION = 64;
+
+    private record Location(long offset, int length) {
+        long end() { return offset + length; }
+    }
+
+    private final File file;
+    private final File indexFile;
+    // Keys in order of first appearance, so compaction keeps the header and row order
+    private final LinkedHashMap<String, Location> index = new LinkedHashMap<>();
+    private long indexedUpTo = 0;
+    private int deadRecords = 0;
+
+    private KeyedRecordStore(String filename) {
+        this.file = new File(filename);
+        this.indexFile = new File(filename + ".idx");
+        loadIndex();
+    }
+
+    /**
+     * @return the shared store for filename
+     */
+    public static KeyedRecordStore forFile(String filename) {
+        return STORES.computeIfAbsent(filename, KeyedRecordStore::new);
+    }
+
+    public synchronized boolean contains(String key) {
+        catchUp();
+        return index.containsKey(key);
+    }
+
+    /**
+     * @return the current line for key, or null if there is none
+     */
+    public synchronized String get(String key) {
+        catchUp();
+        Location location = index.get(key);
+        if (location == null) return null;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            byte[] bytes = new byte[location.length()];
+            raf.seek(location.offset());
+            raf.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + file.getPath());
+            return null;
+        }
+    }
+
+    /**
+     * Stores line as the current record for key. The line's first column must equal key.
+     */
+    public synchronized void put(String key, String line) {
+        if (!key.equals(keyOf(line))) {
+            throw new IllegalArgumentException("Line does not start with key " + key + ": " + line);
+        }
+        FileManager.ensureParentDirectory(file.getPath());
+        terminateLastLine();
+        catchUp();
+
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long end = raf.length();
+            raf.seek(end);
+            raf.write(bytes);
+            raf.write('\n');
+
+            Location location = new Location(end, bytes.length);
+            if (index.put(key, location) != null) {
+                deadRecords++;
+            }
+            indexedUpTo = end + bytes.length + 1;
+            FileManager.appendLine(indexFile.getPath(), key + "," + location.offset() + "," + location.length());
+        } catch (IOException e) {
+            System.out.println("Error writing file: " + file.getPath());
+            return;
+        }
+
+        if (deadRecords >= MIN_DEAD_FOR_COMPACTION && deadRecords > index.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Adds a missing final newline so an appended record starts on its own line.
+     */
+    private void terminateLastLine() {
+        if (file.length() == 0) return;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - 1);
+            if (raf.read() != '\n') {
+                raf.write('\n');
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing file: " + file.getPath());
+        }
+    }
+
+    /**
+     * Rewrites the file with only the current line for each key.
+     */
+    public synchronized void compact() {
+        LinkedHashMap<String, String> latest = new LinkedHashMap<>();
+        try (Stream<String> lines = FileManager.lines(file.getPath())) {
+            lines.filter(line -> !line.isBlank()).forEach(line -> latest.put(keyOf(line), line));
+        }
+        FileManager.writeLines(file.getPath(), new ArrayList<>(latest.values()));
+        rebuildIndex();
+    }
+
+    /**
+     * Loads the persisted index, falling back to a full scan if it is missing or
+     * describes a longer file than the one on disk (the file was replaced).
+     */
+    private void loadIndex() {
+        if (indexFile.exists()) {
+            try (Stream<String> entries = FileManager.lines(indexFile.getPath())) {
+                entries.forEach(this::loadIndexEntry);
+            }
+            if (indexedUpTo <= file.length()) {
+                catchUp();
+                return;
+            }
+        }
+        rebuildIndex();
+    }
+
+    private void loadIndexEntry(String entry) {
+        String[] parts = entry.split(",");
+        if (parts.length < 3) return;
+        try {
+            Location location = new Location(Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+            if (index.put(parts[0], location) != null) {
+                deadRecords++;
+            }
+            indexedUpTo = Math.max(indexedUpTo, location.end() + 1);
+        } catch (NumberFormatException ignored) {
+        }
+    }
+
+    private void rebuildIndex() {
+        index.clear();
+        deadRecords = 0;
+        indexedUpTo = 0;
+        indexFile.delete();
+        catchUp();
+    }
+
+    /**
+     * Indexes lines appended to the file since it was last indexed, e.g. by FileManager.appendLine.
+     */
+    private void catchUp() {
+        long length = file.length();
+        if (length < indexedUpTo) {
+            // File was truncated or replaced by another writer
+            rebuildIndex();
+            return;
+        }
+        if (length <= indexedUpTo) return;
+
+        List<String> newEntries = new ArrayList<>();
+        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            in.skipNBytes(indexedUpTo);
+            long lineStart = indexedUpTo;
+            long position = indexedUpTo;
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    indexLine(line, lineStart, newEntries);
+                    line.reset();
+                    lineStart = position;
+                } else {
+                    line.write(b);
+                }
+            }
+            // A final line without a newline is left for the next catch-up
+            indexedUpTo = lineStart;
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + file.getPath());
+        }
+        if (!newEntries.isEmpty()) {
+            FileManager.appendLines(indexFile.getPath(), newEntries);
+        }
+    }
+
+    private void indexLine(ByteArrayOutputStream line, long offset, List<String> newEntries) {
+        int length = line.size();
+        byte[] bytes = line.toByteArray();
+        if (length > 0 && bytes[length - 1] == '\r') length--;
+        if (length == 0) return;
+
+        String key = keyOf(new String(bytes, 0, length, StandardCharsets.UTF_8));
+        if (index.put(key, new Location(offset, length)) != null) {
+            deadRecords++;
+        }
+        newEntries.add(key + "," + offset + "," + length);
+    }
+
+    private static String keyOf(String line) {
+        int comma = line.indexOf(',');
+        return (comma >= 0 ? line.substring(0, comma) : line).trim();
+    }
+}
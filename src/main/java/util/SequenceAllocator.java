@@ -0,0 +1,78 @@
+package util;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Hands out increasing integer ids for a CSV file whose first column is an id.
+ * The high-water mark is kept in a small "<file>.seq" file next to the data file.
+ * On first use it is recovered from that file and one scan of the data file
+ * (whichever is higher), after which each allocation is an atomic increment.
+ */
+public class SequenceAllocator {
+
+    private static final Map<String, SequenceAllocator> ALLOCATORS = new ConcurrentHashMap<>();
+
+    private final String seqFile;
+    private final AtomicInteger highWaterMark;
+    private int persisted;
+
+    private SequenceAllocator(String filename) {
+        this.seqFile = filename + ".seq";
+        int recovered = Math.max(readSeqFile(), scanMaxId(filename));
+        this.highWaterMark = new AtomicInteger(recovered);
+        this.persisted = recovered;
+    }
+
+    /**
+     * @return the shared allocator for filename
+     */
+    public static SequenceAllocator forFile(String filename) {
+        return ALLOCATORS.computeIfAbsent(filename, SequenceAllocator::new);
+    }
+
+    public int next() {
+        int id = highWaterMark.incrementAndGet();
+        persist(id);
+        return id;
+    }
+
+    private synchronized void persist(int id) {
+        // Concurrent callers may arrive out of order; never move the stored mark backwards
+        if (id <= persisted) return;
+        FileManager.writeLines(seqFile, List.of(String.valueOf(id)));
+        persisted = id;
+    }
+
+    private int readSeqFile() {
+        if (!new File(seqFile).exists()) return 0;
+        List<String> lines = FileManager.readFirstLines(seqFile, 1);
+        if (lines.isEmpty()) return 0;
+        try {
+            return Integer.parseInt(lines.get(0).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int scanMaxId(String filename) {
+        if (!new File(filename).exists()) return 0;
+        try (Stream<String> lines = FileManager.lines(filename)) {
+            return lines.mapToInt(SequenceAllocator::idOf).max().orElse(0);
+        }
+    }
+
+    private static int idOf(String line) {
+        int comma = line.indexOf(',');
+        String first = comma >= 0 ? line.substring(0, comma) : line;
+        try {
+            return Integer.parseInt(first.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress check for Inventory: several registers sell the same, deliberately too
+ * small, stock at once through tryReserve / commit / release.
+ *
+ * For each register count it checks that no product goes below zero, that the
+ * units taken from stock equal the units sold, and that reloading inventory.txt
+ * plus its journal gives the same stock. It prints sales per second per run so
+ * the scaling as registers are added can be compared.
+ *
+ * Run after mvn test-compile:
+ *   java -cp target/classes:target/test-classes model.InventoryStressCheck [salesPerRegister] [registers...]
+ * Exits with status 1 if any check fails.
+ */
+public class InventoryStressCheck {
+
+    private static final int PRODUCTS = 64;
+
+    public static void main(String[] args) throws Exception {
+        int salesPerRegister = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        List<Integer> registerCounts = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            registerCounts.add(Integer.parseInt(args[i]));
+        }
+        if (registerCounts.isEmpty()) {
+            registerCounts = List.of(1, 2, 4, 8);
+        }
+
+        System.out.println("CPUs: " + Runtime.getRuntime().availableProcessors()
+                + ", sales per register: " + salesPerRegister);
+        boolean ok = true;
+        double baseline = 0;
+        // Untimed warm-up so the first measured run is not paying for JIT compilation
+        Path warmup = Files.createTempDirectory("inventory-stress");
+        try {
+            ok = run(warmup, 2, salesPerRegister) >= 0;
+        } finally {
+            deleteAll(warmup);
+        }
+        for (int registers : registerCounts) {
+            Path dir = Files.createTempDirectory("inventory-stress");
+            try {
+                double perSecond = run(dir, registers, salesPerRegister);
+                if (perSecond < 0) {
+                    ok = false;
+                    continue;
+                }
+                if (baseline == 0) baseline = perSecond / registers;
+                System.out.printf("%2d registers: %,10.0f sales/s  (%.2fx one register)%n",
+                        registers, perSecond, perSecond / baseline);
+            } finally {
+                deleteAll(dir);
+            }
+        }
+
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) System.exit(1);
+    }
+
+    /**
+     * @return sales per second, or -1 if a check failed
+     */
+    private static double run(Path dir, int registers, int salesPerRegister) throws Exception {
+        // Stock covers about three quarters of the demand, so registers race for the last units
+        int stockPerProduct = Math.max(1, registers * salesPerRegister * 2 * 3 / 4 / PRODUCTS);
+        String file = dir.resolve("inventory.txt").toString();
+        List<String> lines = new ArrayList<>();
+        lines.add("productId, quantity");
+        for (int pid = 1; pid <= PRODUCTS; pid++) {
+            lines.add(pid + "," + stockPerProduct);
+        }
+        Files.write(Path.of(file), lines);
+
+        Inventory inventory = new Inventory(file);
+        AtomicLong unitsSold = new AtomicLong();
+        AtomicLong sales = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < registers; r++) {
+            long seed = r;
+            Thread t = new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < salesPerRegister; i++) {
+                    int pid = 1 + random.nextInt(PRODUCTS);
+                    int quantity = 1 + random.nextInt(3);
+                    if (!inventory.tryReserve(pid, quantity)) continue;
+                    // Some payments fail and hand the units back
+                    if (random.nextInt(10) == 0) {
+                        inventory.release(pid, quantity);
+                    } else {
+                        inventory.commit(pid, quantity);
+                        unitsSold.addAndGet(quantity);
+                        sales.incrementAndGet();
+                    }
+                }
+            }, "register-" + r);
+            threads.add(t);
+            t.start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        boolean ok = true;
+        long remaining = 0;
+        Inventory reloaded = new Inventory(file);
+        for (int pid = 1; pid <= PRODUCTS; pid++) {
+            int stock = inventory.getStock(pid);
+            if (stock < 0) {
+                System.out.println("Oversold product " + pid + ": stock " + stock);
+                ok = false;
+            }
+            if (reloaded.getStock(pid) != stock) {
+                System.out.println("Product " + pid + " reloads as " + reloaded.getStock(pid) + ", expected " + stock);
+                ok = false;
+            }
+            if (inventory.getAvailable(pid) != stock) {
+                System.out.println("Product " + pid + " still has units reserved");
+                ok = false;
+            }
+            remaining += stock;
+        }
+        long taken = (long) stockPerProduct * PRODUCTS - remaining;
+        if (taken != unitsSold.get()) {
+            System.out.println(registers + " registers: " + taken + " units left stock but " + unitsSold.get() + " were sold");
+            ok = false;
+        }
+        return ok ? sales.get() / seconds : -1;
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+}
@@ -0,0 +1,145 @@
+package service;
+
+import model.OnlineOrder;
+import util.FileManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Scanner;
+import java.util.stream.Stream;
+
+/**
+ * Load test for FulfillmentPipeline.
+ *
+ * For each worker count a child JVM is started in a fresh temporary directory,
+ * since OnlineOrderService always reads data/orders.csv from the working
+ * directory. The child seeds that file with ready orders, ships them all through
+ * the pipeline and prints orders per second with p50 and p99 claim-to-shipped
+ * latency. Each order's processing sleeps pickMillis to stand in for the pick
+ * and pack. The child then reloads the orders from disk and checks that every
+ * order was shipped exactly once with its own tracking number.
+ *
+ * Run after mvn test-compile:
+ *   java -cp target/classes:target/test-classes service.FulfillmentLoadCheck [orders] [pickMillis] [workers...]
+ * Exits with status 1 if any check fails.
+ */
+public class FulfillmentLoadCheck {
+
+    private static final String HEADER =
+            "orderId,customerName,shippingAddress,status,trackingNumber,productId,productName,quantity";
+    private static final String HELD = "HELD";
+    private static final int WARMUP_ORDERS = 500;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 4 && args[0].equals("run")) {
+            boolean ok = runChild(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            System.exit(ok ? 0 : 1);
+        }
+
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int pickMillis = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        List<Integer> workerCounts = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            workerCounts.add(Integer.parseInt(args[i]));
+        }
+        if (workerCounts.isEmpty()) {
+            workerCounts = List.of(1, 2, 4, 8);
+        }
+
+        System.out.println("CPUs: " + Runtime.getRuntime().availableProcessors()
+                + ", orders: " + orders + ", pick time: " + pickMillis + " ms");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        // Absolute, since the child runs in another directory
+        List<String> classPath = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            classPath.add(new File(entry).getAbsolutePath());
+        }
+        boolean ok = true;
+        for (int workers : workerCounts) {
+            Path dir = Files.createTempDirectory("fulfillment-load");
+            try {
+                Process child = new ProcessBuilder(java, "-cp", String.join(File.pathSeparator, classPath),
+                        FulfillmentLoadCheck.class.getName(), "run",
+                        String.valueOf(orders), String.valueOf(pickMillis), String.valueOf(workers))
+                        .directory(dir.toFile())
+                        .inheritIO()
+                        .start();
+                if (child.waitFor() != 0) ok = false;
+            } finally {
+                deleteAll(dir);
+            }
+        }
+
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) System.exit(1);
+    }
+
+    /**
+     * Child process, run in its own working directory.
+     *
+     * @return false if a check failed
+     */
+    private static boolean runChild(int orders, int pickMillis, int workers) throws IOException {
+        // Warm-up orders start ready; the measured ones are held until the warm-up run is done
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (int i = 1; i <= WARMUP_ORDERS + orders; i++) {
+            String status = i <= WARMUP_ORDERS ? OnlineOrder.READY_TO_FULFILL : HELD;
+            lines.add("LT" + i + ",Customer " + i + ",1 Load St," + status + ",,P" + (i % 50 + 1) + ",Widget,1");
+        }
+        FileManager.writeLines("data/orders.csv", lines);
+
+        OnlineOrderService service = new OnlineOrderService(new Scanner(""));
+        FulfillmentPipeline.OrderProcessor processor = order -> {
+            if (pickMillis > 0) Thread.sleep(pickMillis);
+            return "LOAD-" + order.getId();
+        };
+        FulfillmentPipeline pipeline = new FulfillmentPipeline(service, workers);
+        pipeline.run(processor);
+
+        for (OnlineOrder order : service.getOrdersByStatus(HELD)) {
+            service.updateStatus(order, OnlineOrder.READY_TO_FULFILL);
+        }
+        service.saveOrders();
+        FulfillmentPipeline.Result result = pipeline.run(processor);
+
+        System.out.printf("%2d workers: %,9.0f orders/s  p50 %6.2f ms  p99 %6.2f ms  (%d shipped, %d failed, %d skipped)%n",
+                workers, result.getOrdersPerSecond(), result.getLatencyMillis(50), result.getLatencyMillis(99),
+                result.getShipped(), result.getFailed(), result.getSkipped());
+
+        boolean ok = true;
+        if (result.getShipped() != orders || result.getFailed() != 0 || result.getSkipped() != 0) {
+            System.out.println("Expected all " + orders + " orders shipped once");
+            ok = false;
+        }
+
+        // Snapshot plus journals must agree with memory
+        OnlineOrderService reloaded = new OnlineOrderService(new Scanner(""));
+        int wrong = 0;
+        for (int i = 1; i <= WARMUP_ORDERS + orders; i++) {
+            OnlineOrder order = reloaded.getOrderById("LT" + i);
+            if (order == null || !OnlineOrder.SHIPPED.equals(order.getStatus())
+                    || !("LOAD-LT" + i).equals(order.getTrackingNumber())) {
+                wrong++;
+            }
+        }
+        if (wrong > 0) {
+            System.out.println(wrong + " orders were not shipped with their own tracking number after reloading");
+            ok = false;
+        }
+        return ok;
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
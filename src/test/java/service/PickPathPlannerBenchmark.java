@@ -0,0 +1,104 @@
+package service;
+
+import model.PickItem;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark for PickPathPlanner: walking distance of pick lists in order-line
+ * order (before) against the serpentine route (after).
+ *
+ * The warehouse is a generated grid of aisles x bays x bins (12,000 bins by
+ * default). For each list size it builds random pick lists, routes them and
+ * prints the average distance both ways, in bay lengths, and the average time
+ * to route one list. It checks that every route holds exactly the items it was
+ * given and is never longer than the unrouted list.
+ *
+ * Run after mvn test-compile:
+ *   java -cp target/classes:target/test-classes service.PickPathPlannerBenchmark [aisles] [bays] [bins] [listsPerSize]
+ * Exits with status 1 if any check fails.
+ */
+public class PickPathPlannerBenchmark {
+
+    private static final int[] LIST_SIZES = {20, 100, 500, 2000};
+
+    public static void main(String[] args) {
+        int aisles = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int bays = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int bins = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int lists = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        System.out.println("Warehouse: " + aisles + " aisles x " + bays + " bays x " + bins + " bins = "
+                + (aisles * bays * bins) + " bins, " + lists + " lists per size");
+        PickPathPlanner planner = new PickPathPlanner();
+        Random random = new Random(42);
+
+        // Untimed warm-up so the first measured size is not paying for JIT compilation
+        for (int i = 0; i < 50; i++) {
+            planner.route(randomList(random, 500, aisles, bays, bins));
+        }
+
+        boolean ok = true;
+        for (int size : LIST_SIZES) {
+            double before = 0;
+            double after = 0;
+            long routingNanos = 0;
+            for (int i = 0; i < lists; i++) {
+                List<PickItem> items = randomList(random, size, aisles, bays, bins);
+                long start = System.nanoTime();
+                List<PickItem> route = planner.route(items);
+                routingNanos += System.nanoTime() - start;
+
+                if (!sameItems(items, route)) {
+                    System.out.println(size + " picks: the route does not hold exactly the listed items");
+                    ok = false;
+                }
+                double unrouted = planner.routeDistance(items);
+                double routed = planner.routeDistance(route);
+                if (routed > unrouted) {
+                    System.out.println(size + " picks: the route is longer than the unrouted list ("
+                            + routed + " > " + unrouted + ")");
+                    ok = false;
+                }
+                before += unrouted;
+                after += routed;
+            }
+            before /= lists;
+            after /= lists;
+            System.out.printf("%5d picks: %,9.0f -> %,7.0f bay lengths (%2.0f%% shorter), %.2f ms to route%n",
+                    size, before, after, 100 * (1 - after / before), routingNanos / 1_000_000.0 / lists);
+        }
+
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) System.exit(1);
+    }
+
+    /**
+     * @return size picks at random bins, in the order an order's lines would list them
+     */
+    private static List<PickItem> randomList(Random random, int size, int aisles, int bays, int bins) {
+        List<PickItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String location = String.format("%02d-%02d-%d",
+                    random.nextInt(aisles), random.nextInt(bays), random.nextInt(bins) + 1);
+            items.add(new PickItem(String.valueOf(i + 1), "Item " + (i + 1), 1 + random.nextInt(3), location));
+        }
+        return items;
+    }
+
+    private static boolean sameItems(List<PickItem> items, List<PickItem> route) {
+        if (items.size() != route.size()) return false;
+        Comparator<PickItem> byId = Comparator.comparing(PickItem::getProductId);
+        List<PickItem> expected = new ArrayList<>(items);
+        List<PickItem> actual = new ArrayList<>(route);
+        expected.sort(byId);
+        actual.sort(byId);
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.get(i) != actual.get(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,225 @@
+package service;
+
+import model.Inventory;
+import model.ProductRepository;
+import model.PurchaseOrder;
+import model.PurchaseOrderRepository;
+import model.VendorContractRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark for PurchaseOrderService.replenishLowStock on a generated catalog.
+ *
+ * A temporary directory is filled with products (3 approved vendors each out of
+ * 20), vendors (one blocked, one unapproved), one contract per vendor (one of
+ * them not approved) listing a catalog price for every product the vendor
+ * supplies, stock levels that leave about a third of the products low, and open
+ * and closed orders for some of the low products. It times loading and the
+ * replenishment run, then checks the result against a brute-force pass over the
+ * generated data:
+ * - exactly the low products without an open order are ordered
+ * - each from the cheapest eligible vendor, for the recommended quantity
+ * The single append of the whole batch passes the journal's compaction
+ * threshold, so it also checks that the journal was folded into
+ * purchase_orders.csv, that reloading from disk gives the same orders, and that
+ * a second run after reloading orders nothing.
+ *
+ * Run after mvn test-compile:
+ *   java -cp target/classes:target/test-classes service.ReplenishmentBenchmark [skus]
+ * Exits with status 1 if any check fails.
+ */
+public class ReplenishmentBenchmark {
+
+    private static final int VENDORS = 20;
+    private static final int VENDORS_PER_PRODUCT = 3;
+    private static final int THRESHOLD = 10;
+    private static final int BLOCKED_VENDOR = 20;
+    private static final int UNAPPROVED_VENDOR = 19;
+    private static final int VENDOR_WITH_PENDING_CONTRACT = 18;
+    private static final String[] EXISTING_STATUSES = {"Pending", "In Transit", "Pending Delivery", "Received", "Completed"};
+    private static final String DELIVERY_DATE = "2030-01-01";
+
+    public static void main(String[] args) throws Exception {
+        int skus = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Path dir = Files.createTempDirectory("replenishment-benchmark");
+        try {
+            boolean ok = run(dir, skus);
+            System.out.println(ok ? "PASS" : "FAIL");
+            if (!ok) System.exit(1);
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    private static boolean run(Path dir, int skus) throws IOException {
+        Random random = new Random(7);
+        int[][] productVendors = new int[skus + 1][];
+        // prices.get(vendor).get(product)
+        Map<Integer, Map<Integer, Double>> prices = new HashMap<>();
+        int[] stock = new int[skus + 1];
+
+        List<String> products = new ArrayList<>();
+        products.add("id,name,price,lowStockThreshold,approvedVendorIDs");
+        List<String> inventory = new ArrayList<>();
+        inventory.add("productId, quantity");
+        for (int pid = 1; pid <= skus; pid++) {
+            int first = random.nextInt(VENDORS);
+            productVendors[pid] = new int[VENDORS_PER_PRODUCT];
+            StringBuilder vendorIds = new StringBuilder();
+            for (int v = 0; v < VENDORS_PER_PRODUCT; v++) {
+                int vendor = (first + v * 7) % VENDORS + 1;
+                productVendors[pid][v] = vendor;
+                if (v > 0) vendorIds.append('|');
+                vendorIds.append(vendor);
+                prices.computeIfAbsent(vendor, k -> new HashMap<>())
+                        .put(pid, 5 + random.nextInt(9500) / 100.0);
+            }
+            products.add(pid + ",SKU " + pid + "," + (20 + pid % 80) + ".99," + THRESHOLD + "," + vendorIds);
+            stock[pid] = random.nextInt(3 * THRESHOLD + 1);
+            inventory.add(pid + "," + stock[pid]);
+        }
+
+        List<String> vendors = new ArrayList<>();
+        List<String> contracts = new ArrayList<>();
+        for (int vendor = 1; vendor <= VENDORS; vendor++) {
+            vendors.add(vendor + ",Vendor " + vendor + ",v" + vendor + "@example.com,"
+                    + (vendor != UNAPPROVED_VENDOR) + "," + (vendor == BLOCKED_VENDOR) + ",Business License");
+            StringBuilder catalog = new StringBuilder();
+            for (Map.Entry<Integer, Double> price : prices.getOrDefault(vendor, Map.of()).entrySet()) {
+                if (!catalog.isEmpty()) catalog.append(';');
+                catalog.append(price.getKey()).append(':').append(price.getValue());
+            }
+            String status = vendor == VENDOR_WITH_PENDING_CONTRACT ? "Pending" : "Approved";
+            contracts.add(vendor + "," + vendor + "," + status + ",Net 30,None,10000.00,OK,OK," + catalog);
+        }
+
+        Files.write(dir.resolve("products.txt"), products);
+        Files.write(dir.resolve("inventory.txt"), inventory);
+        Files.write(dir.resolve("vendors.txt"), vendors);
+        Files.write(dir.resolve("contracts.txt"), contracts);
+        String poFile = dir.resolve("purchase_orders.csv").toString();
+        String journal = dir.resolve("purchase_orders_journal.txt").toString();
+
+        long loadStart = System.nanoTime();
+        ProductRepository productRepo = new ProductRepository(dir.resolve("products.txt").toString());
+        VendorContractRepository vendorRepo = new VendorContractRepository(
+                dir.resolve("vendors.txt").toString(), dir.resolve("contracts.txt").toString());
+        Inventory stockLevels = new Inventory(dir.resolve("inventory.txt").toString());
+        PurchaseOrderRepository poRepo = new PurchaseOrderRepository(poFile);
+        PurchaseOrderService service = new PurchaseOrderService(poRepo, productRepo, vendorRepo, stockLevels);
+        productRepo.getAll();
+        double loadMillis = (System.nanoTime() - loadStart) / 1_000_000.0;
+
+        // Every 20th low product already has an order; only some of those orders are still open
+        Map<Integer, Boolean> existingOpen = new HashMap<>();
+        List<PurchaseOrder> existing = new ArrayList<>();
+        int lowSeen = 0;
+        for (int pid = 1; pid <= skus; pid++) {
+            if (stock[pid] > THRESHOLD || lowSeen++ % 20 != 0) continue;
+            int vendor = productVendors[pid][0] == VENDOR_WITH_PENDING_CONTRACT ? productVendors[pid][1] : productVendors[pid][0];
+            PurchaseOrder po = new PurchaseOrder(productRepo.findById(pid), vendorRepo.findVendorById(vendor),
+                    vendorRepo.findApprovedContract(vendor), 1, 1.0, DELIVERY_DATE);
+            String status = EXISTING_STATUSES[existing.size() % EXISTING_STATUSES.length];
+            po.setStatus(status);
+            existing.add(po);
+            existingOpen.merge(pid, !status.equals("Received") && !status.equals("Completed"), Boolean::logicalOr);
+        }
+        if (!poRepo.addPurchaseOrders(existing)) {
+            System.out.println("Could not save the existing orders");
+            return false;
+        }
+
+        long runStart = System.nanoTime();
+        List<PurchaseOrder> created = service.replenishLowStock(DELIVERY_DATE);
+        double runMillis = (System.nanoTime() - runStart) / 1_000_000.0;
+
+        System.out.printf("%,d SKUs: loaded in %.0f ms, replenished in %.0f ms, %,d orders created (%,d existing)%n",
+                skus, loadMillis, runMillis, created.size(), existing.size());
+
+        boolean ok = true;
+        Map<Integer, PurchaseOrder> createdByProduct = new HashMap<>();
+        for (PurchaseOrder po : created) {
+            if (createdByProduct.put(po.getProductId(), po) != null) {
+                System.out.println("Product " + po.getProductId() + " was ordered twice");
+                ok = false;
+            }
+        }
+
+        int wrong = 0;
+        int expectedCount = 0;
+        for (int pid = 1; pid <= skus; pid++) {
+            double cheapest = Double.MAX_VALUE;
+            for (int vendor : productVendors[pid]) {
+                if (vendor == BLOCKED_VENDOR || vendor == UNAPPROVED_VENDOR || vendor == VENDOR_WITH_PENDING_CONTRACT) continue;
+                cheapest = Math.min(cheapest, prices.get(vendor).get(pid));
+            }
+            boolean due = stock[pid] <= THRESHOLD && !existingOpen.getOrDefault(pid, false)
+                    && cheapest != Double.MAX_VALUE;
+            PurchaseOrder po = createdByProduct.get(pid);
+            if (due) expectedCount++;
+            if (due != (po != null)) {
+                wrong++;
+                continue;
+            }
+            if (po == null) continue;
+
+            double vendorPrice = prices.get(po.getVendorId()).getOrDefault(pid, Double.MAX_VALUE);
+            int quantity = Math.max(THRESHOLD * 2 - stock[pid], 1);
+            if (po.getUnitCost() != cheapest || vendorPrice != cheapest || po.getQuantity() != quantity) {
+                wrong++;
+            }
+        }
+        if (wrong > 0) {
+            System.out.println(wrong + " products were ordered wrongly or not at all (expected "
+                    + expectedCount + " orders)");
+            ok = false;
+        }
+
+        // One append of the whole batch passes the compaction threshold
+        int total = poRepo.getOrderCount();
+        if (new File(journal).exists()) {
+            System.out.println("The journal was not compacted after " + created.size() + " new orders");
+            ok = false;
+        }
+        long snapshotRows;
+        try (Stream<String> lines = Files.lines(Path.of(poFile))) {
+            snapshotRows = lines.count() - 1;
+        }
+        if (snapshotRows != total) {
+            System.out.println("purchase_orders.csv holds " + snapshotRows + " orders, expected " + total);
+            ok = false;
+        }
+
+        PurchaseOrderRepository reloaded = new PurchaseOrderRepository(poFile);
+        if (reloaded.getOrderCount() != total) {
+            System.out.println("Reloading gave " + reloaded.getOrderCount() + " orders, expected " + total);
+            ok = false;
+        }
+        List<PurchaseOrder> again = new PurchaseOrderService(reloaded, productRepo, vendorRepo, stockLevels)
+                .replenishLowStock(DELIVERY_DATE);
+        if (!again.isEmpty()) {
+            System.out.println("A second run after reloading ordered " + again.size() + " products again");
+            ok = false;
+        }
+        return ok;
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fault-injection check for AtomicFileWriter.
+ *
+ * A child JVM rewrites a set of data files over and over, each time with a new
+ * generation number stamped on every line, using both single writes and a Batch.
+ * This process kills the child with SIGKILL at a random moment, then checks that
+ * every file is a complete copy of a single generation (the old version or the new
+ * one, never a mix or a truncated file) and that no file went back to an older
+ * generation. It repeats for the given number of rounds.
+ *
+ * Run after mvn test-compile:
+ *   java -cp target/classes:target/test-classes util.AtomicFileWriterCrashCheck [rounds]
+ * Exits with status 1 if any check fails.
+ */
+public class AtomicFileWriterCrashCheck {
+
+    private static final String[] FILES = {
+            "orders.csv", "purchase_orders.csv", "inventory.txt", "vendors.txt", "contracts.txt"
+    };
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("writer")) {
+            runWriter(Path.of(args[1]));
+            return;
+        }
+
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        Path dir = Files.createTempDirectory("atomic-writer-crash");
+        try {
+            boolean ok = check(dir, rounds);
+            System.out.println(ok ? "PASS" : "FAIL");
+            if (!ok) System.exit(1);
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static boolean check(Path dir, int rounds) throws Exception {
+        // Generation 0 is the "old" version every file starts from
+        for (String name : FILES) {
+            AtomicFileWriter.write(dir.resolve(name).toString(), contents(0, 100));
+        }
+        int[] lastSeen = new int[FILES.length];
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Random random = new Random(1);
+        int torn = 0;
+        int newest = 0;
+        int advanced = 0;
+        for (int round = 1; round <= rounds; round++) {
+            Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    AtomicFileWriterCrashCheck.class.getName(), "writer", dir.toString())
+                    .redirectErrorStream(true)
+                    .start();
+            // Wait until the writer is running, then kill it somewhere inside its writes
+            writer.getInputStream().read();
+            Thread.sleep(random.nextInt(1000));
+            writer.destroyForcibly();
+            writer.waitFor(10, TimeUnit.SECONDS);
+
+            for (int i = 0; i < FILES.length; i++) {
+                Path file = dir.resolve(FILES[i]);
+                int generation = generationOf(file);
+                if (generation < 0) {
+                    System.out.println("Round " + round + ": " + FILES[i] + " is torn or mixed");
+                    torn++;
+                    continue;
+                }
+                if (generation < lastSeen[i]) {
+                    System.out.println("Round " + round + ": " + FILES[i] + " went back from generation "
+                            + lastSeen[i] + " to " + generation);
+                    torn++;
+                }
+                if (generation > lastSeen[i]) advanced++;
+                lastSeen[i] = generation;
+                newest = Math.max(newest, generation);
+            }
+        }
+
+        long leftovers;
+        try (var files = Files.list(dir)) {
+            leftovers = files.filter(p -> p.getFileName().toString().endsWith(".tmp")).count();
+        }
+        System.out.println(rounds + " kills, " + advanced + " file replacements seen, newest generation "
+                + newest + ", " + leftovers + " temp files left by kills (swept by later writes once stale)");
+        if (advanced == 0) {
+            System.out.println("The writer never replaced a file; the check proved nothing");
+            return false;
+        }
+        return torn == 0;
+    }
+
+    /**
+     * Child process: rewrites every file with increasing generations until killed.
+     * Generations carry on from what is on disk, so each round's writes are new versions.
+     */
+    private static void runWriter(Path dir) throws IOException {
+        int generation = 0;
+        for (String name : FILES) {
+            generation = Math.max(generation, generationOf(dir.resolve(name)));
+        }
+        Random random = new Random();
+        System.out.println("writing");
+        System.out.flush();
+        while (true) {
+            generation++;
+            // Large enough that a kill often lands mid-write
+            int lineCount = 5_000 + random.nextInt(10_000);
+            for (int i = 0; i < 3; i++) {
+                AtomicFileWriter.write(dir.resolve(FILES[i]).toString(), contents(generation, lineCount));
+            }
+            AtomicFileWriter.Batch batch = new AtomicFileWriter.Batch();
+            for (int i = 3; i < FILES.length; i++) {
+                batch.add(dir.resolve(FILES[i]).toString(), contents(generation, lineCount));
+            }
+            batch.commit();
+        }
+    }
+
+    private static List<String> contents(int generation, int lineCount) {
+        List<String> lines = new ArrayList<>(lineCount + 1);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(generation + "," + i + ",payload-payload-payload-payload");
+        }
+        lines.add("END," + generation + "," + lineCount);
+        return lines;
+    }
+
+    /**
+     * @return the file's generation, or -1 if it is missing, truncated or mixes generations
+     */
+    private static int generationOf(Path file) throws IOException {
+        if (!new File(file.toString()).exists()) return -1;
+        List<String> lines = Files.readAllLines(file);
+        if (lines.isEmpty()) return -1;
+
+        String[] end = lines.getLast().split(",");
+        if (end.length != 3 || !end[0].equals("END")) return -1;
+        int generation = Integer.parseInt(end[1]);
+        int lineCount = Integer.parseInt(end[2]);
+        if (lines.size() != lineCount + 1) return -1;
+
+        String prefix = generation + ",";
+        for (int i = 0; i < lineCount; i++) {
+            if (!lines.get(i).startsWith(prefix + i + ",")) return -1;
+        }
+        return generation;
+    }
+}
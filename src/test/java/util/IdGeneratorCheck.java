@@ -0,0 +1,103 @@
+package util;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Concurrency check for IdGenerator: several threads draw ids from one shared
+ * generator at the same time.
+ *
+ * It checks that every thread saw its own ids strictly increasing and that no id
+ * was handed out twice across all threads, then that two generators with
+ * different node ids never produce the same id. It prints ids per second.
+ *
+ * Run after mvn test-compile:
+ *   java -cp target/classes:target/test-classes util.IdGeneratorCheck [totalIds] [threads]
+ * Exits with status 1 if any check fails.
+ */
+public class IdGeneratorCheck {
+
+    public static void main(String[] args) throws Exception {
+        int totalIds = args.length > 0 ? Integer.parseInt(args[0]) : 8_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int perThread = totalIds / threads;
+
+        System.out.println("CPUs: " + Runtime.getRuntime().availableProcessors()
+                + ", threads: " + threads + ", ids: " + (long) perThread * threads);
+        boolean ok = true;
+
+        IdGenerator generator = new IdGenerator(1);
+        long[][] drawn = new long[threads][perThread];
+        boolean[] increasing = new boolean[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long[] ids = drawn[t];
+            int index = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.nextId();
+                }
+                boolean ordered = true;
+                for (int i = 1; i < ids.length; i++) {
+                    if (ids[i] <= ids[i - 1]) ordered = false;
+                }
+                increasing[index] = ordered;
+            });
+            workers[t].start();
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - began;
+
+        for (int t = 0; t < threads; t++) {
+            if (!increasing[t]) {
+                System.out.println("Thread " + t + " saw its ids go backwards");
+                ok = false;
+            }
+        }
+
+        long[] all = new long[perThread * threads];
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(drawn[t], 0, all, t * perThread, perThread);
+        }
+        Arrays.sort(all);
+        int duplicates = 0;
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) duplicates++;
+        }
+        if (duplicates > 0) {
+            System.out.println(duplicates + " duplicate ids");
+            ok = false;
+        }
+        System.out.printf("%,d ids in %.0f ms (%,.0f ids/s), %d duplicates%n",
+                all.length, elapsed / 1_000_000.0, all.length * 1_000_000_000.0 / elapsed, duplicates);
+
+        // Two terminals drawing in the same milliseconds must still differ by node
+        IdGenerator other = new IdGenerator(2);
+        long[] mixed = new long[200_000];
+        for (int i = 0; i < mixed.length; i += 2) {
+            mixed[i] = generator.nextId();
+            mixed[i + 1] = other.nextId();
+        }
+        Arrays.sort(mixed);
+        for (int i = 1; i < mixed.length; i++) {
+            if (mixed[i] == mixed[i - 1]) {
+                System.out.println("Generators with different node ids produced the same id " + mixed[i]);
+                ok = false;
+                break;
+            }
+        }
+
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) System.exit(1);
+    }
+}
@@ -0,0 +1,172 @@
+package util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark for IntIntMap against the HashMap&lt;Integer, Integer&gt; that Inventory
+ * stripes used before.
+ *
+ * It first runs a random mix of put, add, remove and get on both maps, including
+ * key 0 and negative keys, and checks that they always agree. Then, for each map
+ * size, it times put, get (half hits, half misses), add (the stock update path)
+ * and iteration over all entries, and prints nanoseconds per operation for both
+ * maps. Each timing is the best of several rounds after an untimed warm-up.
+ *
+ * Run after mvn test-compile:
+ *   java -cp target/classes:target/test-classes util.IntIntMapBenchmark [operationsPerRound] [sizes...]
+ * Exits with status 1 if the maps ever disagree.
+ */
+public class IntIntMapBenchmark {
+
+    private static final int ROUNDS = 5;
+    // Keeps results alive so the JIT cannot drop the measured loops
+    private static long sink;
+
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int[] sizes = new int[Math.max(0, args.length - 1)];
+        for (int i = 1; i < args.length; i++) {
+            sizes[i - 1] = Integer.parseInt(args[i]);
+        }
+        if (sizes.length == 0) {
+            sizes = new int[] {64, 10_000, 1_000_000};
+        }
+
+        boolean ok = matchesHashMap(2_000_000);
+        System.out.println("Random put/add/remove/get against HashMap: " + (ok ? "identical" : "MISMATCH"));
+
+        // Untimed warm-up of every measured path
+        for (int i = 0; i < 3; i++) {
+            measure(10_000, operations / 4, false);
+        }
+        System.out.println("ns per operation, best of " + ROUNDS + " rounds (IntIntMap / HashMap):");
+        for (int size : sizes) {
+            measure(size, operations, true);
+        }
+
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean matchesHashMap(int steps) {
+        Random random = new Random(3);
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < steps; i++) {
+            // Small key range so keys collide, repeat and get removed often
+            int key = random.nextInt(4000) - 1000;
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    int value = random.nextInt();
+                    map.put(key, value);
+                    expected.put(key, value);
+                }
+                case 1 -> {
+                    int delta = random.nextInt(21) - 10;
+                    map.add(key, delta);
+                    expected.merge(key, delta, Integer::sum);
+                }
+                case 2 -> {
+                    map.remove(key);
+                    expected.remove(key);
+                }
+                default -> {
+                    if (map.get(key, -1) != expected.getOrDefault(key, -1)
+                            || map.containsKey(key) != expected.containsKey(key)) {
+                        System.out.println("Step " + i + ": get(" + key + ") differs");
+                        return false;
+                    }
+                }
+            }
+            if (map.size() != expected.size()) {
+                System.out.println("Step " + i + ": size " + map.size() + " != " + expected.size());
+                return false;
+            }
+        }
+
+        Map<Integer, Integer> seen = new HashMap<>();
+        map.forEach(seen::put);
+        int[] sorted = map.sortedKeys();
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] <= sorted[i - 1]) return false;
+        }
+        return seen.equals(expected) && sorted.length == expected.size();
+    }
+
+    private static void measure(int size, int operations, boolean print) {
+        int[] keys = new int[size];
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextInt(Integer.MAX_VALUE - 1) + 1;
+        }
+        // Half of the probes are keys that are not in the map
+        int[] probes = new int[operations];
+        for (int i = 0; i < operations; i++) {
+            probes[i] = random.nextBoolean() ? keys[random.nextInt(size)] : -1 - random.nextInt(Integer.MAX_VALUE);
+        }
+        int[] updates = new int[operations];
+        for (int i = 0; i < operations; i++) {
+            updates[i] = keys[random.nextInt(size)];
+        }
+        int iterations = Math.max(1, operations / size);
+
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE,
+                Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            IntIntMap primitive = new IntIntMap();
+            for (int key : keys) primitive.put(key, key & 1023);
+            best[0] = Math.min(best[0], System.nanoTime() - start);
+
+            start = System.nanoTime();
+            Map<Integer, Integer> boxed = new HashMap<>();
+            for (int key : keys) boxed.put(key, key & 1023);
+            best[1] = Math.min(best[1], System.nanoTime() - start);
+
+            start = System.nanoTime();
+            long sum = 0;
+            for (int key : probes) sum += primitive.get(key, 0);
+            best[2] = Math.min(best[2], System.nanoTime() - start);
+            sink += sum;
+
+            start = System.nanoTime();
+            sum = 0;
+            for (int key : probes) sum += boxed.getOrDefault(key, 0);
+            best[3] = Math.min(best[3], System.nanoTime() - start);
+            sink += sum;
+
+            start = System.nanoTime();
+            for (int key : updates) primitive.add(key, -1);
+            best[4] = Math.min(best[4], System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int key : updates) boxed.merge(key, -1, Integer::sum);
+            best[5] = Math.min(best[5], System.nanoTime() - start);
+
+            long[] total = new long[1];
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                primitive.forEach((key, value) -> total[0] += value);
+            }
+            best[6] = Math.min(best[6], System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                for (Map.Entry<Integer, Integer> entry : boxed.entrySet()) total[0] += entry.getValue();
+            }
+            best[7] = Math.min(best[7], System.nanoTime() - start);
+            sink += total[0];
+        }
+
+        if (!print) return;
+        long visited = (long) iterations * size;
+        System.out.printf("%,10d keys: put %6.1f / %6.1f   get %6.1f / %6.1f   add %6.1f / %6.1f   iterate %5.1f / %5.1f%n",
+                size,
+                (double) best[0] / size, (double) best[1] / size,
+                (double) best[2] / operations, (double) best[3] / operations,
+                (double) best[4] / operations, (double) best[5] / operations,
+                (double) best[6] / visited, (double) best[7] / visited);
+    }
+}